@@ -0,0 +1,135 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link BlobStore} keeps the decoded content of binary values outside of the heap. Contents are addressed by their
+ * checksum, storing the same bytes twice returns the same key and keeps only one copy. A binary {@link Value} whose
+ * content was moved into a store only holds its key and reads the bytes from the store when they are needed, see
+ * {@link Reader#setBlobStore(BlobStore)}.
+ * <p>
+ * Stores must be thread-safe. Trees that are serialized should use a serializable store, values of other stores are
+ * serialized with their content.
+ *
+ * @since 10.2026
+ */
+public interface BlobStore {
+
+   /**
+    * Reads the stream to its end and stores its bytes.
+    *
+    * @param data
+    *            {@link InputStream}: the decoded content, it is not closed.
+    * @return {@link String} the key of the content, equal contents have equal keys.
+    * @throws IOException
+    */
+   String put(InputStream data) throws IOException;
+
+
+   /**
+    * @param key
+    *            {@link String}: the key returned by {@link #put(InputStream)}.
+    * @return {@link InputStream} a new stream of the stored bytes, to be closed by the caller.
+    * @throws IOException
+    *             if there is no content for the key.
+    */
+   InputStream open(String key) throws IOException;
+
+
+   /**
+    * @param key
+    *            {@link String}: the key returned by {@link #put(InputStream)}.
+    * @return long the number of stored bytes, or -1 if there is no content for the key.
+    */
+   long length(String key);
+
+
+   /**
+    * Tells whether the contents outlive the process, so that documents may refer to them by key, see
+    * {@link Writer#setBlobReferences(boolean)}.
+    *
+    * @return boolean true if the contents are kept beyond the process, the default is false.
+    */
+   default boolean isPersistent() {
+      return false;
+   }
+
+
+   /**
+    * Stores the content of a binary {@link Value}. Stores that keep a content only as long as values refer to it
+    * return a handle holding its bytes, the value then holds on to the handle.
+    *
+    * @param data
+    *            {@link InputStream}: the decoded content, it is not closed.
+    * @return {@link Handle} the handle of the content, by default holding only the key returned by
+    *         {@link #put(InputStream)}.
+    * @throws IOException
+    */
+   default Handle hold(InputStream data) throws IOException {
+      return new Handle(put(data), null);
+   }
+
+
+   /**
+    * Returns a handle to a content stored earlier, like {@link #hold(InputStream)}.
+    *
+    * @param key
+    *            {@link String}: the key of the content.
+    * @return {@link Handle} the handle of the content, or null if there is no content for the key.
+    */
+   default Handle lookup(String key) {
+      return length(key) < 0 ? null : new Handle(key, null);
+   }
+
+
+   /**
+    * The key of a stored content and, for stores that do not keep the content by themselves, its bytes.
+    */
+   final class Handle {
+
+      private final String key;
+      private final byte[] bytes;
+
+
+      /**
+       * @param key
+       *            {@link String}: the key of the content.
+       * @param bytes
+       *            byte[]: the content, null if the store keeps it by itself. It must not be modified.
+       */
+      public Handle(String key, byte[] bytes) {
+         this.key = key;
+         this.bytes = bytes;
+      }
+
+
+      /**
+       * @return {@link String} the key of the content.
+       */
+      public String getKey() {
+         return key;
+      }
+
+
+      /**
+       * @return byte[] the content, or null if it is read from the store.
+       */
+      byte[] getBytes() {
+         return bytes;
+      }
+   }
+}
@@ -0,0 +1,171 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import org.apache.commons.codec.binary.Base64InputStream;
+
+/**
+ * Checksums of binary content in the form algorithm$checksum. They are computed in one streaming pass over the
+ * decoded bytes. Supported are CRC32C (hardware accelerated on current JVMs, the default) and SHA-256, both written
+ * as hex. Checksums of the form CRC32$checksum were computed by earlier versions over the Base64 text and are written
+ * as decimal; they can still be verified.
+ *
+ * @since 10.2026
+ */
+final class Checksum {
+
+   static final String              CRC32C      = "CRC32C", SHA256 = "SHA-256", CRC32 = "CRC32";
+   private static final int         BUFFER_SIZE = 64 * 1024;
+   private final String             algorithm;
+   private final java.util.zip.Checksum crc;
+   private final MessageDigest      digest;
+
+
+   private Checksum(String algorithm) {
+      this.algorithm = algorithm;
+      if (CRC32C.equalsIgnoreCase(algorithm)) {
+         crc = new CRC32C();
+         digest = null;
+      } else if (CRC32.equalsIgnoreCase(algorithm)) {
+         crc = new CRC32();
+         digest = null;
+      } else {
+         crc = null;
+         try {
+            digest = MessageDigest.getInstance(SHA256);
+         } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e.toString());
+         }
+      }
+   }
+
+
+   /**
+    * @return boolean true if checksums of the algorithm can be computed and verified.
+    */
+   static boolean isSupported(String algorithm) {
+      return CRC32C.equalsIgnoreCase(algorithm) || SHA256.equalsIgnoreCase(algorithm)
+            || CRC32.equalsIgnoreCase(algorithm);
+   }
+
+
+   /**
+    * @return {@link String} the algorithm of a checksum of the form algorithm$checksum, or null if it has no
+    *         algorithm.
+    */
+   static String algorithmOf(String checksum) {
+      int i = checksum == null ? -1 : checksum.indexOf('$');
+      return i < 0 ? null : checksum.substring(0, i);
+   }
+
+
+   private void update(byte[] bytes, int offset, int length) {
+      if (crc != null) {
+         crc.update(bytes, offset, length);
+      } else {
+         digest.update(bytes, offset, length);
+      }
+   }
+
+
+   private String getValue() {
+      if (CRC32.equalsIgnoreCase(algorithm)) {
+         return CRC32 + "$" + crc.getValue();
+      } else if (crc != null) {
+         return CRC32C + "$" + String.format("%08x", crc.getValue());
+      }
+      return SHA256 + "$" + DirectoryBlobStore.toHex(digest.digest());
+   }
+
+
+   /**
+    * @return {@link String} the checksum of the bytes.
+    */
+   static String compute(String algorithm, byte[] bytes) {
+      Checksum checksum = new Checksum(algorithm);
+      checksum.update(bytes, 0, bytes.length);
+      return checksum.getValue();
+   }
+
+
+   /**
+    * Reads the decoded content to its end and computes its checksum. Legacy CRC32 checksums are computed over the
+    * Base64 encoding of the content.
+    *
+    * @param decoded
+    *            {@link InputStream}: the decoded content, it is not closed.
+    * @return {@link String} the checksum.
+    * @throws IOException
+    */
+   static String compute(String algorithm, InputStream decoded) throws IOException {
+      return compute(algorithm, decoded, null);
+   }
+
+
+   /**
+    * Like {@link #compute(String, InputStream)}, but also copies the decoded content to the output in the same pass.
+    *
+    * @param out
+    *            {@link OutputStream}: receives the decoded content, may be null. It is not closed.
+    */
+   static String compute(String algorithm, InputStream decoded, final OutputStream out) throws IOException {
+      Checksum checksum = new Checksum(algorithm);
+      if (out != null) {
+         decoded = new FilterInputStream(decoded) {
+
+            @Override
+            public int read() throws IOException {
+               int b = super.read();
+               if (b >= 0) {
+                  out.write(b);
+               }
+               return b;
+            }
+
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+               int read = super.read(bytes, offset, length);
+               if (read > 0) {
+                  out.write(bytes, offset, read);
+               }
+               return read;
+            }
+         };
+      }
+      InputStream in = CRC32.equalsIgnoreCase(algorithm) ? new Base64InputStream(decoded, true, 0, null) : decoded;
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+         checksum.update(buffer, 0, read);
+      }
+      return checksum.getValue();
+   }
+
+
+   /**
+    * Compares two checksums, ignoring the case of the algorithm and of hex digits.
+    */
+   static boolean matches(String expected, String actual) {
+      return expected.trim().equalsIgnoreCase(actual);
+   }
+}
@@ -0,0 +1,205 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.net.URL;
+import java.util.ArrayDeque;
+
+/**
+ * 64 bit content hashes of values, properties and sections. Equal content always has equal hashes, different content
+ * has different hashes with a very high probability; the equal methods tell them apart exactly. The hash of a section
+ * covers its information, its properties and the names and hashes of its subsections, but not its own name. Sections
+ * that only differ in their names thus have the same hash, which allows to find moved and renamed subtrees.
+ *
+ * @since 10.2026
+ */
+final class ContentHash {
+
+   private static final long SEED = 0xcbf29ce484222325L;
+
+
+   private ContentHash() {
+   }
+
+
+   static long mix(long hash, long value) {
+      hash = (hash ^ value) * 0x9e3779b97f4a7c15L;
+      return hash ^ (hash >>> 29);
+   }
+
+
+   /**
+    * 64 bit FNV-1a of the characters, String.hashCode has only 32 bits.
+    */
+   static long of(String text) {
+      if (text == null) {
+         return 0x51ed270b27d3f0c5L;
+      }
+      long hash = SEED;
+      for (int i = 0; i < text.length(); i++) {
+         hash ^= text.charAt(i);
+         hash *= 0x100000001b3L;
+      }
+      return hash;
+   }
+
+
+   static long of(Object content) {
+      if (content == null || content instanceof String || content instanceof URL) {
+         return of(content == null ? null : content.toString());
+      }
+      return mix(of(content.getClass().getName()), content.hashCode());
+   }
+
+
+   static long of(Value value) {
+      long hash = of(value.getComparableContent());
+      hash = mix(hash, of(value.getType()));
+      hash = mix(hash, of(value.getUnit()));
+      hash = mix(hash, of(value.getUncertainty()));
+      hash = mix(hash, of(value.getReference()));
+      hash = mix(hash, of(value.getDefinition()));
+      return mix(hash, of(value.getFilename()));
+   }
+
+
+   static long of(Property property) {
+      long hash = header(property);
+      for (int i = 0; i < property.valueCount(); i++) {
+         hash = mix(hash, of(property.valueAt(i)));
+      }
+      return hash;
+   }
+
+
+   /**
+    * The hash of the information of a property itself, i.e. without its values.
+    */
+   static long header(Property property) {
+      long hash = of(property.getName());
+      hash = mix(hash, of(property.getDefinition()));
+      hash = mix(hash, of(property.getDependency()));
+      hash = mix(hash, of(property.getDependencyValue()));
+      return mix(hash, of(property.getMapping()));
+   }
+
+
+   /**
+    * The hash of the information of a section itself, i.e. without its name, properties and subsections.
+    */
+   static long header(Section section) {
+      long hash = of(section.getType());
+      hash = mix(hash, of(section.getDefinition()));
+      hash = mix(hash, of(section.getReference()));
+      hash = mix(hash, of(section.getOwnRepository()));
+      hash = mix(hash, of(section.getMapping()));
+      hash = mix(hash, of(section.getLink()));
+      return mix(hash, of(section.getInclude()));
+   }
+
+
+   /**
+    * Computes the hash of a section from its own information and the hashes of its subsections.
+    *
+    * @param subsections
+    *            the hashes of the subsections.
+    */
+   static long of(Section section, long[] subsections) {
+      long hash = header(section);
+      hash = mix(hash, section.propertyCount());
+      for (int i = 0; i < section.propertyCount(); i++) {
+         hash = mix(hash, section.getProperty(i).getContentHash());
+      }
+      hash = mix(hash, subsections.length);
+      for (int i = 0; i < subsections.length; i++) {
+         hash = mix(hash, of(section.getSection(i).getName()));
+         hash = mix(hash, subsections[i]);
+      }
+      return hash;
+   }
+
+
+   static boolean equal(Object a, Object b) {
+      if (a == null || b == null) {
+         return a == b;
+      }
+      if (a instanceof URL && b instanceof URL) {
+         return a.toString().equals(b.toString());
+      }
+      return a.equals(b);
+   }
+
+
+   static boolean equal(Value a, Value b) {
+      return equal(a.getComparableContent(), b.getComparableContent()) && equal(a.getType(), b.getType())
+            && equal(a.getUnit(), b.getUnit()) && equal(a.getUncertainty(), b.getUncertainty())
+            && equal(a.getReference(), b.getReference()) && equal(a.getDefinition(), b.getDefinition())
+            && equal(a.getFilename(), b.getFilename());
+   }
+
+
+   /**
+    * Compares exactly what {@link #of(Property)} hashes.
+    */
+   static boolean equal(Property a, Property b) {
+      if (!equal(a.getName(), b.getName()) || !equal(a.getDefinition(), b.getDefinition())
+            || !equal(a.getDependency(), b.getDependency())
+            || !equal(a.getDependencyValue(), b.getDependencyValue()) || !equal(a.getMapping(), b.getMapping())
+            || a.valueCount() != b.valueCount()) {
+         return false;
+      }
+      for (int i = 0; i < a.valueCount(); i++) {
+         if (!equal(a.valueAt(i), b.valueAt(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+
+   /**
+    * Compares exactly what {@link #of(Section, long[])} hashes, subtree by subtree. Subsections with different hashes
+    * end the comparison early.
+    */
+   static boolean equal(Section a, Section b) {
+      ArrayDeque<Section[]> pending = new ArrayDeque<Section[]>();
+      pending.push(new Section[] { a, b });
+      while (!pending.isEmpty()) {
+         Section[] pair = pending.pop();
+         Section s = pair[0], t = pair[1];
+         if (s == t) {
+            continue;
+         }
+         if (s.getContentHash() != t.getContentHash() || !equal(s.getType(), t.getType())
+               || !equal(s.getDefinition(), t.getDefinition()) || !equal(s.getReference(), t.getReference())
+               || !equal(s.getOwnRepository(), t.getOwnRepository()) || !equal(s.getMapping(), t.getMapping())
+               || !equal(s.getLink(), t.getLink()) || !equal(s.getInclude(), t.getInclude())
+               || s.propertyCount() != t.propertyCount() || s.sectionCount() != t.sectionCount()) {
+            return false;
+         }
+         for (int i = 0; i < s.propertyCount(); i++) {
+            if (!equal(s.getProperty(i), t.getProperty(i))) {
+               return false;
+            }
+         }
+         for (int i = 0; i < s.sectionCount(); i++) {
+            if (!equal(s.getSection(i).getName(), t.getSection(i).getName())) {
+               return false;
+            }
+            pending.push(new Section[] { s.getSection(i), t.getSection(i) });
+         }
+      }
+      return true;
+   }
+}
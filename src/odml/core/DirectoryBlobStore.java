@@ -0,0 +1,150 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A {@link BlobStore} that keeps each content in a file of a local directory, named by the SHA-256 of its bytes. The
+ * directory may be shared by several trees and survives the process; contents are never removed by the store.
+ *
+ * @since 10.2026
+ */
+public class DirectoryBlobStore implements BlobStore, Serializable {
+
+   private static final long serialVersionUID = 1L;
+   private static final int  BUFFER_SIZE      = 64 * 1024;
+   private final File        directory;
+
+
+   /**
+    * @param directory
+    *            {@link File}: the directory holding the contents, it is created if it does not exist.
+    * @throws IOException
+    *             if the directory cannot be created.
+    */
+   public DirectoryBlobStore(File directory) throws IOException {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+         throw new IOException("Cannot create blob directory " + directory);
+      }
+      this.directory = directory;
+   }
+
+
+   /**
+    * @return {@link File} the directory holding the contents.
+    */
+   public File getDirectory() {
+      return directory;
+   }
+
+
+   @Override
+   public String put(InputStream data) throws IOException {
+      MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IOException(e);
+      }
+      // write to a temporary file first, the name is only known at the end
+      File temp = File.createTempFile("blob", ".tmp", directory);
+      try {
+         OutputStream out = new FileOutputStream(temp);
+         try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = data.read(buffer)) >= 0) {
+               digest.update(buffer, 0, read);
+               out.write(buffer, 0, read);
+            }
+         } finally {
+            out.close();
+         }
+         String key = toHex(digest.digest());
+         File target = file(key);
+         if (!target.exists()) {
+            try {
+               Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+               // stored concurrently by someone else, the content is the same
+            }
+         }
+         return key;
+      } finally {
+         temp.delete();
+      }
+   }
+
+
+   @Override
+   public InputStream open(String key) throws IOException {
+      return new BufferedInputStream(new FileInputStream(file(key)), BUFFER_SIZE);
+   }
+
+
+   @Override
+   public long length(String key) {
+      File file = file(key);
+      return file.isFile() ? file.length() : -1;
+   }
+
+
+   private File file(String key) {
+      for (int i = 0; i < key.length(); i++) {
+         char c = key.charAt(i);
+         if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+            throw new IllegalArgumentException("Not a blob key: " + key);
+         }
+      }
+      return new File(directory, key);
+   }
+
+
+   /**
+    * @return boolean true, the files stay in the directory.
+    */
+   @Override
+   public boolean isPersistent() {
+      return true;
+   }
+
+
+   static String toHex(byte[] bytes) {
+      char[] hex = new char[bytes.length * 2];
+      for (int i = 0; i < bytes.length; i++) {
+         hex[2 * i] = Character.forDigit((bytes[i] >> 4) & 0xf, 16);
+         hex[2 * i + 1] = Character.forDigit(bytes[i] & 0xf, 16);
+      }
+      return new String(hex);
+   }
+
+
+   @Override
+   public String toString() {
+      return "DirectoryBlobStore[" + directory + "]";
+   }
+}
@@ -0,0 +1,168 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.*;
+
+/**
+ * The {@link LinkIndex} is the reverse index of the links stored in an odML tree, i.e. it maps each linked
+ * {@link Section} onto those sections that are linked to it. The index is built by the root section in a single pass
+ * over the tree the first time it is needed. {@link Section#setLink(String, boolean)} updates it, adding, moving or
+ * removing sections drops it so that it is rebuilt on the next request.
+ *
+ * @since 10.2026
+ */
+class LinkIndex {
+
+   private final IdentityHashMap<Section, Vector<Section>> linkingSections = new IdentityHashMap<Section, Vector<Section>>();
+   private final IdentityHashMap<Section, Section>         targets         = new IdentityHashMap<Section, Section>();
+
+
+   /**
+    * Creates the index for the tree below the given root section.
+    *
+    * @param root
+    *            {@link Section} the root of the tree.
+    */
+   LinkIndex(Section root) {
+      collect(root);
+   }
+
+
+   private void collect(final Section root) {
+      // the absolute paths of all sections that getSection(String) can reach, by case-folded path
+      final HashMap<String, Section> paths = new HashMap<String, Section>();
+      final IdentityHashMap<Section, String> reachable = new IdentityHashMap<Section, String>();
+      final Vector<Section> linked = new Vector<Section>();
+      reachable.put(root, "");
+      root.accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section == root) {
+               return Result.CONTINUE;
+            }
+            if (section.isLinked()) {
+               linked.add(section);
+            }
+            String parentPath = reachable.get(section.getParent());
+            if (parentPath != null) {
+               String path = parentPath + "/" + Section.foldCase(section.getName());
+               // like getSection, the first section with a name wins
+               if (!paths.containsKey(path)) {
+                  paths.put(path, section);
+                  reachable.put(section, path);
+               }
+            }
+            return Result.CONTINUE;
+         }
+      });
+      for (Section s : linked) {
+         put(s, resolve(s, paths));
+      }
+   }
+
+
+   /**
+    * Looks up simple absolute links in the path table and leaves everything else to
+    * {@link Section#getLinkedSection()}.
+    */
+   private static Section resolve(Section section, HashMap<String, Section> paths) {
+      String link = section.getLink();
+      if (link.startsWith("/") && !link.contains("#") && !link.contains("//") && !link.contains("/.")) {
+         String path = link.endsWith("/") ? link.substring(0, link.length() - 1) : link;
+         Section target = paths.get(Section.foldCase(path));
+         if (target != null) {
+            return target;
+         }
+      }
+      return section.getLinkedSection();
+   }
+
+
+   /**
+    * Registers a link from one section to another. Any link previously registered for the linking section is
+    * replaced.
+    *
+    * @param linking
+    *            {@link Section} the section that holds the link.
+    * @param target
+    *            {@link Section} the section the link resolves to. If null, the link is only removed.
+    */
+   void put(Section linking, Section target) {
+      remove(linking);
+      if (target == null) {
+         return;
+      }
+      Vector<Section> temp = linkingSections.get(target);
+      if (temp == null) {
+         temp = new Vector<Section>();
+         linkingSections.put(target, temp);
+      }
+      temp.add(linking);
+      targets.put(linking, target);
+   }
+
+
+   /**
+    * Removes the link registered for the given section, if any.
+    *
+    * @param linking
+    *            {@link Section} the linking section.
+    */
+   void remove(Section linking) {
+      Section target = targets.remove(linking);
+      if (target != null) {
+         Vector<Section> temp = linkingSections.get(target);
+         // by identity, equal sections elsewhere in the tree must stay registered
+         for (int i = 0; i < temp.size(); i++) {
+            if (temp.get(i) == linking) {
+               temp.removeElementAt(i);
+               break;
+            }
+         }
+         if (temp.isEmpty()) {
+            linkingSections.remove(target);
+         }
+      }
+   }
+
+
+   /**
+    * Returns the section a linking section resolves to.
+    *
+    * @param linking
+    *            {@link Section} the linking section.
+    * @return {@link Section} the link target or null if the section is not linked or its link is invalid.
+    */
+   Section getTarget(Section linking) {
+      return targets.get(linking);
+   }
+
+
+   /**
+    * Returns the sections that are linked to the target section.
+    *
+    * @param target
+    *            {@link Section} the link target.
+    * @return {@link Vector} of {@link Section}s, may be empty.
+    */
+   Vector<Section> getLinkingSections(Section target) {
+      Vector<Section> temp = linkingSections.get(target);
+      if (temp == null) {
+         return new Vector<Section>();
+      }
+      return new Vector<Section>(temp);
+   }
+}
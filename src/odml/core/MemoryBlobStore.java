@@ -0,0 +1,189 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link BlobStore} of the process. It keeps the decoded content of binary values in the heap, one copy per
+ * distinct content, keyed by the SHA-256 of its bytes. Values read with this store from any number of documents share
+ * the copy of equal contents, so the heap grows with the distinct contents, not with their occurrences. A content
+ * stored for a value is kept as long as a value refers to it, a content stored with {@link #put(InputStream)} is kept
+ * for the lifetime of the process.
+ *
+ * @since 10.2026
+ */
+public final class MemoryBlobStore implements BlobStore, Serializable {
+
+   private static final long                                 serialVersionUID = 1L;
+   private static final MemoryBlobStore                      instance         = new MemoryBlobStore();
+   private final transient ConcurrentHashMap<String, Entry>  payloads         = new ConcurrentHashMap<String, Entry>();
+   private final transient ReferenceQueue<byte[]>            cleared          = new ReferenceQueue<byte[]>();
+   /**
+    * The contents stored with {@link #put(InputStream)}, their callers only keep the key.
+    */
+   private final transient ConcurrentHashMap<String, byte[]> kept             = new ConcurrentHashMap<String, byte[]>();
+
+
+   private static final class Entry extends WeakReference<byte[]> {
+
+      private final String key;
+
+
+      Entry(String key, byte[] bytes, ReferenceQueue<byte[]> queue) {
+         super(bytes, queue);
+         this.key = key;
+      }
+   }
+
+
+   private MemoryBlobStore() {
+   }
+
+
+   /**
+    * @return {@link MemoryBlobStore} the store of the process.
+    */
+   public static MemoryBlobStore getInstance() {
+      return instance;
+   }
+
+
+   private Object readResolve() throws ObjectStreamException {
+      return instance;
+   }
+
+
+   /**
+    * Stores the content, or returns the stored content if it is already known. The store only refers to it weakly,
+    * the value keeps the returned handle.
+    *
+    * @return {@link BlobStore.Handle} the handle holding the stored bytes, shared by all callers storing equal bytes.
+    */
+   @Override
+   public Handle hold(InputStream data) throws IOException {
+      byte[] bytes = data.readAllBytes();
+      MessageDigest digest;
+      try {
+         digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IOException(e);
+      }
+      String key = DirectoryBlobStore.toHex(digest.digest(bytes));
+      byte[] put = kept.get(key);
+      if (put != null) {
+         return new Handle(key, put);
+      }
+      expunge();
+      while (true) {
+         Entry entry = payloads.putIfAbsent(key, new Entry(key, bytes, cleared));
+         if (entry == null) {
+            return new Handle(key, bytes);
+         }
+         byte[] known = entry.get();
+         if (known != null) {
+            return new Handle(key, known);
+         }
+         // cleared but not yet expunged
+         payloads.remove(key, entry);
+      }
+   }
+
+
+   private void expunge() {
+      Entry entry;
+      while ((entry = (Entry) cleared.poll()) != null) {
+         payloads.remove(entry.key, entry);
+      }
+   }
+
+
+   /**
+    * @return byte[] the stored content, or null if it is not known.
+    */
+   private byte[] get(String key) {
+      byte[] bytes = kept.get(key);
+      if (bytes != null) {
+         return bytes;
+      }
+      Entry entry = payloads.get(key);
+      return entry == null ? null : entry.get();
+   }
+
+
+   /**
+    * Stores the content and keeps it for the lifetime of the process, since the caller only holds its key. Values
+    * read with this store use {@link #hold(InputStream)} instead and keep their content themselves.
+    */
+   @Override
+   public String put(InputStream data) throws IOException {
+      Handle handle = hold(data);
+      kept.putIfAbsent(handle.getKey(), handle.getBytes());
+      return handle.getKey();
+   }
+
+
+   @Override
+   public Handle lookup(String key) {
+      byte[] bytes = get(key);
+      return bytes == null ? null : new Handle(key, bytes);
+   }
+
+
+   @Override
+   public InputStream open(String key) throws IOException {
+      byte[] bytes = get(key);
+      if (bytes == null) {
+         throw new IOException("No content stored for key " + key);
+      }
+      return new ByteArrayInputStream(bytes);
+   }
+
+
+   @Override
+   public long length(String key) {
+      byte[] bytes = get(key);
+      return bytes == null ? -1 : bytes.length;
+   }
+
+
+   /**
+    * @return int the number of distinct contents currently stored.
+    */
+   public int size() {
+      expunge();
+      int size = payloads.size();
+      for (String key : kept.keySet()) {
+         if (!payloads.containsKey(key)) {
+            size++;
+         }
+      }
+      return size;
+   }
+
+
+   @Override
+   public String toString() {
+      return "MemoryBlobStore";
+   }
+}
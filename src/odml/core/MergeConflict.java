@@ -0,0 +1,106 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A {@link MergeConflict} describes a change that was made differently in both versions passed to
+ * {@link Section#merge3(Section, Section, Section, int)}. It names the section in which the conflict occurred, what
+ * was changed and the three versions of it. Versions that do not exist, e.g. because a property was deleted, are null.
+ *
+ * @since 10.2026
+ */
+public final class MergeConflict {
+
+   /**
+    * The kind of element that was changed in both versions.
+    */
+   public enum Kind {
+      /** An attribute of a section, e.g. its definition. The versions are the attribute values. */
+      ATTRIBUTE,
+      /** A property. The versions are {@link Property}s. */
+      PROPERTY,
+      /** A subsection that was changed in one version and deleted in the other. The versions are {@link Section}s. */
+      SECTION
+   }
+
+   private final Kind   kind;
+   private final String path, name;
+   private final Object base, mine, theirs;
+
+
+   MergeConflict(Kind kind, String path, String name, Object base, Object mine, Object theirs) {
+      this.kind = kind;
+      this.path = path;
+      this.name = name;
+      this.base = base;
+      this.mine = mine;
+      this.theirs = theirs;
+   }
+
+
+   /**
+    * @return {@link Kind} the kind of the conflicting element.
+    */
+   public Kind getKind() {
+      return kind;
+   }
+
+
+   /**
+    * @return {@link String} the path of the section that contains the conflicting element, '/' for the root.
+    */
+   public String getPath() {
+      return path;
+   }
+
+
+   /**
+    * @return {@link String} the name of the attribute, property or subsection.
+    */
+   public String getName() {
+      return name;
+   }
+
+
+   /**
+    * @return {@link Object} the element in the common base version or null if it did not exist.
+    */
+   public Object getBase() {
+      return base;
+   }
+
+
+   /**
+    * @return {@link Object} the element in the own version or null if it was deleted.
+    */
+   public Object getMine() {
+      return mine;
+   }
+
+
+   /**
+    * @return {@link Object} the element in the other version or null if it was deleted.
+    */
+   public Object getTheirs() {
+      return theirs;
+   }
+
+
+   @Override
+   public String toString() {
+      return kind + " conflict in '" + path + "' on '" + name + "': base=" + base + ", mine=" + mine
+            + ", theirs=" + theirs;
+   }
+}
@@ -0,0 +1,58 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.Vector;
+
+/**
+ * The {@link MergeResult} of a three-way merge, see {@link Section#merge3(Section, Section, Section, int)}. It holds
+ * the merged tree and the conflicts that were resolved according to the merge policy.
+ *
+ * @since 10.2026
+ */
+public final class MergeResult {
+
+   private final Section               section;
+   private final Vector<MergeConflict> conflicts;
+
+
+   MergeResult(Section section, Vector<MergeConflict> conflicts) {
+      this.section = section;
+      this.conflicts = conflicts;
+   }
+
+
+   /**
+    * @return {@link Section} the merged tree.
+    */
+   public Section getSection() {
+      return section;
+   }
+
+
+   /**
+    * @return {@link Vector} of {@link MergeConflict}s in document order, may be empty.
+    */
+   public Vector<MergeConflict> getConflicts() {
+      return conflicts;
+   }
+
+
+   /**
+    * @return boolean true if at least one conflict occurred.
+    */
+   public boolean hasConflicts() {
+      return !conflicts.isEmpty();
+   }
+}
@@ -0,0 +1,331 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.*;
+
+/**
+ * The {@link OdmlDiff} lists the differences between two odML trees, e.g. two revisions of the same document. Sections
+ * are matched by name and type, properties by name and values by their content. Each {@link Difference} is keyed by
+ * the path of the changed element: '/a/b' for sections, '/a/b#prop' for properties and '/a/b#prop[i]' for the i-th
+ * value of a property.
+ * <p>
+ * Matching subtrees with equal {@link Section#getContentHash()} are skipped without looking at them any further.
+ * Subtrees that were removed in one place and added with the same content in another place, or renamed, are reported
+ * as moved.
+ *
+ * @since 10.2026
+ */
+public final class OdmlDiff {
+
+   /**
+    * What happened to an element.
+    */
+   public enum Change {
+      ADDED, REMOVED, MOVED, CHANGED
+   }
+
+   /**
+    * The kind of the changed element.
+    */
+   public enum Kind {
+      SECTION, PROPERTY, VALUE
+   }
+
+   /**
+    * A single difference between the trees.
+    */
+   public static final class Difference {
+
+      private final Change change;
+      private final Kind   kind;
+      private final String path, oldPath;
+      private final Object oldElement, newElement;
+
+
+      Difference(Change change, Kind kind, String oldPath, String path, Object oldElement, Object newElement) {
+         this.change = change;
+         this.kind = kind;
+         this.oldPath = oldPath;
+         this.path = path;
+         this.oldElement = oldElement;
+         this.newElement = newElement;
+      }
+
+
+      public Change getChange() {
+         return change;
+      }
+
+
+      public Kind getKind() {
+         return kind;
+      }
+
+
+      /**
+       * @return {@link String} the path of the element in the second tree, or in the first tree if it was removed.
+       */
+      public String getPath() {
+         return path;
+      }
+
+
+      /**
+       * @return {@link String} the path of the element in the first tree, or null if it was added.
+       */
+      public String getOldPath() {
+         return oldPath;
+      }
+
+
+      /**
+       * @return {@link Object} the {@link Section}, {@link Property} or value content in the first tree, null if added.
+       */
+      public Object getOldElement() {
+         return oldElement;
+      }
+
+
+      /**
+       * @return {@link Object} the {@link Section}, {@link Property} or value content in the second tree, null if
+       *         removed.
+       */
+      public Object getNewElement() {
+         return newElement;
+      }
+
+
+      @Override
+      public String toString() {
+         if (change == Change.MOVED) {
+            return change + " " + kind + " " + oldPath + " -> " + path;
+         }
+         return change + " " + kind + " " + path;
+      }
+   }
+
+   private final Vector<Difference> differences = new Vector<Difference>();
+
+
+   private OdmlDiff() {
+   }
+
+
+   /**
+    * Computes the differences between two trees.
+    *
+    * @param a
+    *            {@link Section} the first, e.g. older, tree.
+    * @param b
+    *            {@link Section} the second tree.
+    * @return {@link OdmlDiff} the differences.
+    */
+   public static OdmlDiff diff(Section a, Section b) {
+      OdmlDiff diff = new OdmlDiff();
+      diff.compare(a, b);
+      return diff;
+   }
+
+
+   /**
+    * @return {@link Vector} of all {@link Difference}s, empty if the trees are equal.
+    */
+   public Vector<Difference> getDifferences() {
+      return differences;
+   }
+
+
+   /**
+    * Returns the differences of one element.
+    *
+    * @param path
+    *            {@link String} the path of the element in the second tree, or in the first if it was removed.
+    * @return {@link Vector} of {@link Difference}s, may be empty.
+    */
+   public Vector<Difference> getDifferences(String path) {
+      Vector<Difference> temp = new Vector<Difference>();
+      for (Difference d : differences) {
+         if (d.getPath().equals(path)) {
+            temp.add(d);
+         }
+      }
+      return temp;
+   }
+
+
+   /**
+    * @return boolean true if the trees are equal.
+    */
+   public boolean isEmpty() {
+      return differences.isEmpty();
+   }
+
+
+   private void compare(Section a, Section b) {
+      Vector<Section> removed = new Vector<Section>(), added = new Vector<Section>();
+      Vector<String> removedPaths = new Vector<String>(), addedPaths = new Vector<String>();
+      ArrayDeque<Section[]> pending = new ArrayDeque<Section[]>();
+      ArrayDeque<String[]> paths = new ArrayDeque<String[]>();
+      pending.push(new Section[] { a, b });
+      paths.push(new String[] { "", "" });
+      while (!pending.isEmpty()) {
+         Section[] pair = pending.pop();
+         String[] path = paths.pop();
+         Section sa = pair[0], sb = pair[1];
+         if (sa.getContentHash() == sb.getContentHash()) {
+            continue;
+         }
+         if (ContentHash.header(sa) != ContentHash.header(sb)) {
+            differences.add(new Difference(Change.CHANGED, Kind.SECTION, path(path[0]), path(path[1]), sa, sb));
+         }
+         compareProperties(sa, sb, path[0], path[1]);
+         HashMap<String, Section> children = new HashMap<String, Section>();
+         for (int i = sb.sectionCount() - 1; i >= 0; i--) {
+            children.put(key(sb.getSection(i)), sb.getSection(i));
+         }
+         Vector<Section[]> matched = new Vector<Section[]>();
+         for (int i = 0; i < sa.sectionCount(); i++) {
+            Section child = sa.getSection(i);
+            Section other = children.remove(key(child));
+            if (other == null) {
+               removed.add(child);
+               removedPaths.add(path[0] + "/" + child.getName());
+            } else {
+               matched.add(new Section[] { child, other });
+            }
+         }
+         for (int i = 0; i < sb.sectionCount(); i++) {
+            Section child = sb.getSection(i);
+            if (children.get(key(child)) == child) {
+               added.add(child);
+               addedPaths.add(path[1] + "/" + child.getName());
+            }
+         }
+         // pushed in reverse to report in document order
+         for (int i = matched.size() - 1; i >= 0; i--) {
+            Section[] m = matched.get(i);
+            pending.push(m);
+            paths.push(new String[] { path[0] + "/" + m[0].getName(), path[1] + "/" + m[1].getName() });
+         }
+      }
+      // removed and added subtrees with the same content were moved or renamed
+      HashMap<Long, ArrayDeque<Integer>> removedByHash = new HashMap<Long, ArrayDeque<Integer>>();
+      for (int i = 0; i < removed.size(); i++) {
+         Long hash = removed.get(i).getContentHash();
+         ArrayDeque<Integer> temp = removedByHash.get(hash);
+         if (temp == null) {
+            temp = new ArrayDeque<Integer>();
+            removedByHash.put(hash, temp);
+         }
+         temp.add(i);
+      }
+      boolean[] moved = new boolean[removed.size()];
+      for (int i = 0; i < added.size(); i++) {
+         ArrayDeque<Integer> candidates = removedByHash.get(added.get(i).getContentHash());
+         if (candidates != null && !candidates.isEmpty()) {
+            int index = candidates.poll();
+            moved[index] = true;
+            differences.add(new Difference(Change.MOVED, Kind.SECTION, removedPaths.get(index),
+                  addedPaths.get(i), removed.get(index), added.get(i)));
+         } else {
+            differences.add(new Difference(Change.ADDED, Kind.SECTION, null, addedPaths.get(i), null,
+                  added.get(i)));
+         }
+      }
+      for (int i = 0; i < removed.size(); i++) {
+         if (!moved[i]) {
+            differences.add(new Difference(Change.REMOVED, Kind.SECTION, removedPaths.get(i),
+                  removedPaths.get(i), removed.get(i), null));
+         }
+      }
+   }
+
+
+   private void compareProperties(Section sa, Section sb, String pathA, String pathB) {
+      HashMap<String, Property> properties = new HashMap<String, Property>();
+      for (int i = sb.propertyCount() - 1; i >= 0; i--) {
+         properties.put(Section.foldCase(sb.getProperty(i).getName()), sb.getProperty(i));
+      }
+      for (int i = 0; i < sa.propertyCount(); i++) {
+         Property pa = sa.getProperty(i);
+         Property pb = properties.remove(Section.foldCase(pa.getName()));
+         String oldPath = path(pathA) + "#" + pa.getName();
+         if (pb == null) {
+            differences.add(new Difference(Change.REMOVED, Kind.PROPERTY, oldPath, oldPath, pa, null));
+         } else if (pa.getContentHash() != pb.getContentHash()) {
+            compareValues(pa, pb, oldPath, path(pathB) + "#" + pb.getName());
+         }
+      }
+      for (int i = 0; i < sb.propertyCount(); i++) {
+         Property pb = sb.getProperty(i);
+         if (properties.get(Section.foldCase(pb.getName())) == pb) {
+            differences.add(new Difference(Change.ADDED, Kind.PROPERTY, null, path(pathB) + "#" + pb.getName(),
+                  null, pb));
+         }
+      }
+   }
+
+
+   private void compareValues(Property pa, Property pb, String pathA, String pathB) {
+      if (ContentHash.header(pa) != ContentHash.header(pb)) {
+         differences.add(new Difference(Change.CHANGED, Kind.PROPERTY, pathA, pathB, pa, pb));
+      }
+      // values are matched by content, remaining differences are changes of their other information
+      HashMap<Long, ArrayDeque<Integer>> values = new HashMap<Long, ArrayDeque<Integer>>();
+      for (int i = 0; i < pb.valueCount(); i++) {
+         Long content = ContentHash.of(pb.valueAt(i).getComparableContent());
+         ArrayDeque<Integer> temp = values.get(content);
+         if (temp == null) {
+            temp = new ArrayDeque<Integer>();
+            values.put(content, temp);
+         }
+         temp.add(i);
+      }
+      boolean[] matched = new boolean[pb.valueCount()];
+      for (int i = 0; i < pa.valueCount(); i++) {
+         Value va = pa.valueAt(i);
+         ArrayDeque<Integer> candidates = values.get(ContentHash.of(va.getComparableContent()));
+         if (candidates == null || candidates.isEmpty()) {
+            differences.add(new Difference(Change.REMOVED, Kind.VALUE, pathA + "[" + i + "]", pathA + "[" + i
+                  + "]", va.getContent(), null));
+            continue;
+         }
+         int index = candidates.poll();
+         matched[index] = true;
+         Value vb = pb.valueAt(index);
+         if (ContentHash.of(va) != ContentHash.of(vb)) {
+            differences.add(new Difference(Change.CHANGED, Kind.VALUE, pathA + "[" + i + "]", pathB + "["
+                  + index + "]", va.getContent(), vb.getContent()));
+         }
+      }
+      for (int i = 0; i < matched.length; i++) {
+         if (!matched[i]) {
+            differences.add(new Difference(Change.ADDED, Kind.VALUE, null, pathB + "[" + i + "]", null, pb
+                  .valueAt(i).getContent()));
+         }
+      }
+   }
+
+
+   private static String path(String path) {
+      return path.isEmpty() ? "/" : path;
+   }
+
+
+   private static String key(Section section) {
+      return Section.foldCase(section.getName()) + "\u0000"
+            + (section.getType() == null ? "" : Section.foldCase(section.getType()));
+   }
+}
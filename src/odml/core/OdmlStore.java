@@ -0,0 +1,189 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.*;
+
+/**
+ * The {@link OdmlStore} holds the versions of an odML tree that is read by many threads while it is changed. Each
+ * version is an immutable {@link SectionSnapshot}. Readers get the latest version with {@link #current()} without any
+ * locking and keep a consistent view for as long as they hold on to it, no matter how many versions are committed in
+ * the meantime. Writers commit a batch of changes atomically, e.g.
+ *
+ * <pre>
+ * store.commit(builder -&gt; builder.setProperty(&quot;subject&quot;, new Property(&quot;age&quot;, 42))
+ *       &amp;&amp; builder.removeSection(&quot;subject/old&quot;));
+ * </pre>
+ *
+ * A commit derives the new version from the current one, sharing all unchanged subtrees, and installs it with a
+ * compare-and-set. If another writer committed in the meantime, the update is applied again to the newer version.
+ * Versions are not reference counted: an old version is reclaimed by the garbage collector as soon as no reader
+ * refers to it anymore.
+ *
+ * @since 10.2026
+ */
+public class OdmlStore {
+
+   static Logger                          logger = LoggerFactory.getLogger(OdmlStore.class);
+   private final AtomicReference<Version> current;
+
+
+   /**
+    * A batch of changes applied to the builder of the current version.
+    */
+   public interface Update {
+
+      /**
+       * Applies the changes.
+       *
+       * @param builder
+       *            {@link SectionSnapshot.Builder} the builder of the current version.
+       * @return boolean false to abort the commit, e.g. because one of the changes could not be applied.
+       */
+      boolean apply(SectionSnapshot.Builder builder);
+   }
+
+
+   /**
+    * A committed version of the tree and its number.
+    */
+   private static final class Version {
+
+      final SectionSnapshot root;
+      final long            number;
+
+
+      Version(SectionSnapshot root, long number) {
+         this.root = root;
+         this.number = number;
+      }
+   }
+
+
+   /**
+    * Creates a store whose first version is a snapshot of the given tree.
+    *
+    * @param root
+    *            {@link Section} the tree, it is copied.
+    */
+   public OdmlStore(Section root) {
+      this(root.snapshot());
+   }
+
+
+   /**
+    * Creates a store with the given first version.
+    *
+    * @param root
+    *            {@link SectionSnapshot} the first version.
+    */
+   public OdmlStore(SectionSnapshot root) {
+      current = new AtomicReference<Version>(new Version(root, 0));
+   }
+
+
+   /**
+    * Returns the latest committed version. The call never blocks.
+    *
+    * @return {@link SectionSnapshot} the version.
+    */
+   public SectionSnapshot current() {
+      return current.get().root;
+   }
+
+
+   /**
+    * Returns the number of the latest committed version. The first version has the number 0, each commit increments it.
+    *
+    * @return long the version number.
+    */
+   public long getVersion() {
+      return current.get().number;
+   }
+
+
+   /**
+    * Returns a mutable copy of the latest version. Changes to the copy do not affect the store until the copy is
+    * committed with {@link #commit(Section)}.
+    *
+    * @return {@link Section} the copy.
+    */
+   public Section checkout() {
+      return current().toSection();
+   }
+
+
+   /**
+    * Applies a batch of changes atomically. Readers either see all of them or none.
+    *
+    * @param update
+    *            {@link Update} the changes. It may be applied more than once if other writers commit concurrently,
+    *            so it must not have side effects other than on the builder.
+    * @return {@link SectionSnapshot} the new version, or null if the update aborted the commit.
+    */
+   public SectionSnapshot commit(Update update) {
+      if (update == null) {
+         logger.error("OdmlStore.commit: update must not be null!");
+         return null;
+      }
+      while (true) {
+         Version base = current.get();
+         SectionSnapshot.Builder builder = base.root.edit();
+         if (!update.apply(builder)) {
+            return null;
+         }
+         SectionSnapshot root = builder.build();
+         if (root == base.root) {
+            return root;
+         }
+         if (current.compareAndSet(base, new Version(root, base.number + 1))) {
+            return root;
+         }
+      }
+   }
+
+
+   /**
+    * Replaces the latest version by a snapshot of the given tree, e.g. a tree obtained with {@link #checkout()}.
+    *
+    * @param root
+    *            {@link Section} the new tree, it is copied.
+    * @return {@link SectionSnapshot} the new version.
+    */
+   public SectionSnapshot commit(Section root) {
+      SectionSnapshot snapshot = root.snapshot();
+      current.updateAndGet(base -> new Version(snapshot, base.number + 1));
+      return snapshot;
+   }
+
+
+   /**
+    * Installs a new version only if the latest version is still the expected one. Allows optimistic writers to detect
+    * conflicting commits.
+    *
+    * @param expected
+    *            {@link SectionSnapshot} the version the change is based on.
+    * @param root
+    *            {@link SectionSnapshot} the new version.
+    * @return boolean true if the new version was installed, false if another version was committed in between.
+    */
+   public boolean compareAndSet(SectionSnapshot expected, SectionSnapshot root) {
+      Version base = current.get();
+      if (base.root != expected || root == null) {
+         return false;
+      }
+      return current.compareAndSet(base, new Version(root, base.number + 1));
+   }
+}
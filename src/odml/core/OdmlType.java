@@ -0,0 +1,388 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.File;
+import java.net.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The data types of odML values. {@link #resolve(String)} maps the type names used in documents to the types; names
+ * are case insensitive, 'int...', 'float...' and 'bool...' also match longer names like 'integer'. Each type converts
+ * value content to its Java representation with {@link #convert(Object)}.
+ *
+ * @since 10.2026
+ */
+public enum OdmlType {
+
+   INT("int"), FLOAT("float"), BOOLEAN("boolean"), STRING("string"), TEXT("text"), N_TUPLE("n-tuple"),
+   DATE("date"), TIME("time"), DATETIME("datetime"), URL("url"), BINARY("binary"), PERSON("person");
+
+   static Logger                                           logger         = LoggerFactory
+                                                                                .getLogger(OdmlType.class);
+   static final Pattern                                    nTuple         = Pattern
+                                                                                .compile("(?i)[0-9]{1,};[0-9]{1,}");
+   private static final SimpleDateFormat                   dateFormat     = new SimpleDateFormat("yyyy-MM-dd");
+   private static final SimpleDateFormat                   datetimeFormat = new SimpleDateFormat(
+                                                                                "yyyy-MM-dd hh:mm:ss");
+   private static final SimpleDateFormat                   timeFormat     = new SimpleDateFormat("hh:mm:ss");
+   private static final int                                maxCached      = 256;
+   private static final ConcurrentHashMap<String, OdmlType> cache          = new ConcurrentHashMap<String, OdmlType>();
+   private final String                                    name;
+
+
+   private OdmlType(String name) {
+      this.name = name;
+   }
+
+
+   /**
+    * @return {@link String} the name of the type as it is written in documents.
+    */
+   public String getName() {
+      return name;
+   }
+
+
+   @Override
+   public String toString() {
+      return name;
+   }
+
+
+   /**
+    * Returns the type of a type name. Resolved names are cached, so this is cheap enough to be called for every
+    * value.
+    *
+    * @param type
+    *            {@link String} the type name, e.g. 'int' or 'Float'.
+    * @return {@link OdmlType} the type, or null if the name is null or unknown.
+    */
+   public static OdmlType resolve(String type) {
+      if (type == null) {
+         return null;
+      }
+      OdmlType result = cache.get(type);
+      if (result == null) {
+         result = parse(type);
+         if (result != null && cache.size() < maxCached) {
+            cache.put(type, result);
+         }
+      }
+      return result;
+   }
+
+
+   private static OdmlType parse(String type) {
+      String lower = type.toLowerCase(Locale.ENGLISH);
+      if (lower.indexOf('\n') >= 0 || lower.indexOf('\r') >= 0) {
+         // the former regular expressions did not match across lines
+         return null;
+      }
+      if (lower.startsWith("int")) {
+         return INT;
+      } else if (lower.startsWith("float")) {
+         return FLOAT;
+      } else if (lower.startsWith("bool")) {
+         return BOOLEAN;
+      }
+      for (OdmlType t : values()) {
+         if (t != INT && t != FLOAT && t != BOOLEAN && t.name.equals(lower)) {
+            return t;
+         }
+      }
+      return null;
+   }
+
+
+   /**
+    * Infers the type of a text, e.g. of an untyped value, in a single pass over its characters. Surrounding whitespace
+    * is ignored. The formats are checked in a fixed order, so '1' and '0' are booleans like 'true' and 'false', other
+    * whole numbers are ints:
+    * <ol>
+    * <li>boolean - true, false, 1 or 0 in any case.</li>
+    * <li>date - yyyy-MM-dd with a valid month and a day up to 31, February up to 29.</li>
+    * <li>datetime - dddd-dd-dd dd:dd:dd.</li>
+    * <li>time - HH:mm:ss with hours up to 24, minutes and seconds up to 60.</li>
+    * <li>int - an optional sign and digits.</li>
+    * <li>float - an optional sign, optional digits, a point and digits.</li>
+    * <li>n-tuple - digits, a semicolon and digits.</li>
+    * <li>string - everything else.</li>
+    * </ol>
+    *
+    * @param content
+    *            {@link String} the text, must not be null.
+    * @return {@link OdmlType} the type that matches best.
+    */
+   public static OdmlType infer(String content) {
+      int start = 0, end = content.length();
+      while (start < end && content.charAt(start) <= ' ') {
+         start++;
+      }
+      while (end > start && content.charAt(end - 1) <= ' ') {
+         end--;
+      }
+      int length = end - start;
+      int sign = length > 0 && (content.charAt(start) == '+' || content.charAt(start) == '-') ? 1 : 0;
+      int digits = 0, points = 0, semicolons = 0, dashes = 0, colons = 0, blanks = 0, others = 0;
+      int point = -1, semicolon = -1;
+      for (int i = start + sign; i < end; i++) {
+         char c = content.charAt(i);
+         if (c >= '0' && c <= '9') {
+            digits++;
+         } else if (c == '.') {
+            points++;
+            point = i - start;
+         } else if (c == ';') {
+            semicolons++;
+            semicolon = i - start;
+         } else if (c == '-') {
+            dashes++;
+         } else if (c == ':') {
+            colons++;
+         } else if (c == ' ') {
+            blanks++;
+         } else {
+            others++;
+         }
+      }
+      if (others > 0) {
+         if (sign == 0 && (word(content, start, length, "true") || word(content, start, length, "false"))) {
+            return BOOLEAN;
+         }
+         return STRING;
+      }
+      if (length == 1 && (content.charAt(start) == '1' || content.charAt(start) == '0')) {
+         return BOOLEAN;
+      }
+      if (sign == 0) {
+         if (length == 10 && digits == 8 && dashes == 2 && isDate(content, start)) {
+            return DATE;
+         }
+         if (length == 19 && digits == 14 && dashes == 2 && blanks == 1 && colons == 2
+               && content.charAt(start + 4) == '-' && content.charAt(start + 7) == '-'
+               && content.charAt(start + 10) == ' ' && content.charAt(start + 13) == ':'
+               && content.charAt(start + 16) == ':') {
+            return DATETIME;
+         }
+         if (length == 8 && digits == 6 && colons == 2 && isTime(content, start)) {
+            return TIME;
+         }
+      }
+      if (digits > 0 && digits == length - sign) {
+         return INT;
+      }
+      if (points == 1 && digits == length - sign - 1 && point < length - 1) {
+         return FLOAT;
+      }
+      if (sign == 0 && semicolons == 1 && digits == length - 1 && semicolon > 0 && semicolon < length - 1) {
+         return N_TUPLE;
+      }
+      return STRING;
+   }
+
+
+   /**
+    * Compares ignoring the case of ASCII letters only, like the lower case regular expressions did.
+    */
+   private static boolean word(String content, int start, int length, String word) {
+      if (length != word.length()) {
+         return false;
+      }
+      for (int i = 0; i < length; i++) {
+         char c = content.charAt(start + i);
+         if (c >= 'A' && c <= 'Z') {
+            c = (char) (c + ('a' - 'A'));
+         }
+         if (c != word.charAt(i)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+
+   private static boolean isDate(String s, int i) {
+      if (s.charAt(i + 4) != '-' || s.charAt(i + 7) != '-') {
+         return false;
+      }
+      char m1 = s.charAt(i + 5), m2 = s.charAt(i + 6), d1 = s.charAt(i + 8), d2 = s.charAt(i + 9);
+      if (m1 == '0' && m2 == '2') {
+         return d1 <= '2';
+      }
+      if ((m1 == '0' && m2 != '0') || (m1 == '1' && m2 <= '2')) {
+         return d1 <= '2' || (d1 == '3' && d2 <= '1');
+      }
+      return false;
+   }
+
+
+   private static boolean isTime(String s, int i) {
+      if (s.charAt(i + 2) != ':' || s.charAt(i + 5) != ':') {
+         return false;
+      }
+      char h1 = s.charAt(i), h2 = s.charAt(i + 1);
+      return (h1 <= '1' || (h1 == '2' && h2 <= '4')) && upTo60(s.charAt(i + 3), s.charAt(i + 4))
+            && upTo60(s.charAt(i + 6), s.charAt(i + 7));
+   }
+
+
+   private static boolean upTo60(char c1, char c2) {
+      return c1 <= '5' || (c1 == '6' && c2 == '0');
+   }
+
+
+   /**
+    * @return boolean true if text content of this type is parsed into another object, e.g. an Integer or a Date, and
+    *         not kept as text.
+    */
+   boolean isParsed() {
+      switch (this) {
+         case INT:
+         case FLOAT:
+         case BOOLEAN:
+         case DATE:
+         case TIME:
+         case DATETIME:
+         case URL:
+            return true;
+         default:
+            return false;
+      }
+   }
+
+
+   /**
+    * Checks and converts value content to this type.
+    *
+    * @param content
+    *            {@link Object} the content, must not be null.
+    * @return {@link Object} the content in the class of this type, or null if it cannot be converted.
+    */
+   public Object convert(Object content) {
+      switch (this) {
+         case INT:
+            if (content instanceof java.lang.Integer) {
+               return content;
+            } else if (content instanceof java.lang.String) {
+               if (((java.lang.String) content).contains(".") || ((String) content).contains(",")) {
+                  int index = ((String) content).indexOf(".");
+                  if (index == -1)
+                     index = ((String) content).indexOf(",");
+                  content = ((String) content).substring(0, index);
+               }
+               return Integer.parseInt((String) content);
+            } else if (content instanceof Number) {
+               return ((Number) content).intValue();
+            }
+            logger.error("Cannot convert value of class " + content.getClass().getSimpleName()
+                  + " to requested type: " + name);
+            return null;
+         case FLOAT:
+            if (content instanceof Number) {
+               return ((Number) content).floatValue();
+            } else if (content instanceof java.lang.String) { // float could be masked as string
+               return Float.parseFloat((String) content);
+            }
+            logger.error("Cannot convert value of class " + content.getClass().getSimpleName()
+                  + " to requested type " + name);
+            return null;
+         case STRING:
+         case TEXT:
+            if (content instanceof String) {
+               return content;
+            } else if (content instanceof Character) {
+               return ((Character) content).toString();
+            }
+            logger.error("Error converting content of class: " + content.getClass().getSimpleName()
+                  + " to requested type: " + name);
+            return null;
+         case N_TUPLE:
+            if (content instanceof String && nTuple.matcher((String) content).matches()) {
+               return content;
+            }
+            logger.error("Value does not match the n-tuple definition (regExp: " + nTuple.pattern() + ")!");
+            return null;
+         case DATE:
+            return toDate(content, dateFormat, "date");
+         case TIME:
+            return toDate(content, timeFormat, "time");
+         case DATETIME:
+            return toDate(content, datetimeFormat, "datetime");
+         case BOOLEAN:
+            if (content instanceof java.lang.Boolean) {
+               return content;
+            } else if (content instanceof java.lang.String) {
+               return Boolean.parseBoolean((String) content);
+            }
+            logger.error("Cannot convert object of class: " + content.getClass().getSimpleName() + " to a "
+                  + name + ": value!");
+            return null;
+         case URL:
+            if (content instanceof java.net.URL) {
+               return content;
+            } else if (content instanceof java.lang.String) {
+               try {
+                  return new java.net.URL((String) content);
+               } catch (MalformedURLException e) {
+                  logger.error(e.getLocalizedMessage());
+                  return null;
+               }
+            }
+            logger.error("Could not convert " + content.getClass().getSimpleName() + " to required type: " + name);
+            return null;
+         case BINARY:
+            if (content instanceof java.lang.String || content instanceof File || content instanceof java.net.URL
+                  || content instanceof URI) {
+               return content;
+            }
+            logger.error("Binary (String), File, URL, or URI content expected, "
+                  + content.getClass().getSimpleName() + " found!");
+            return null;
+         case PERSON:
+            if (!(content instanceof java.lang.String)) {
+               logger.error("Expect a person to be of class expected, not " + content.getClass());
+               return null;
+            }
+            return content;
+         default:
+            return content;
+      }
+   }
+
+
+   private static Date toDate(Object content, SimpleDateFormat format, String kind) {
+      try {
+         synchronized (format) {
+            if (content instanceof java.util.Date) {
+               return format.parse(format.format(content));
+            } else if (content instanceof java.lang.String) {
+               return format.parse((String) content);
+            }
+         }
+      } catch (Exception e) {
+         logger.error("Cannot convert passed value: " + content + " to a " + kind + " value!");
+         return null;
+      }
+      logger.error("Cannot convert passed object of class: " + content.getClass().getSimpleName() + " to a " + kind
+            + " value!");
+      return null;
+   }
+}
@@ -0,0 +1,251 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Vector;
+
+/**
+ * The values of a homogeneous int, float, boolean or date property stored in a primitive array. All values share one
+ * unit and type and carry no uncertainty, reference, definition or filename. The storage is immutable; a
+ * {@link Property} switches back to {@link Value} objects as soon as one of its values is changed or handed out with
+ * {@link Property#getWholeValue(int)}.
+ *
+ * @since 10.2026
+ */
+final class PackedValues implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+
+   /**
+    * Properties with fewer values are not packed, the few {@link Value} objects do not cost much.
+    */
+   static final int          MIN_SIZE         = 16;
+
+   private enum Kind {
+      INT, FLOAT, BOOLEAN, DATE
+   }
+
+   private final Kind      kind;
+   private final String    unit, type;
+   private final int[]     ints;
+   private final float[]   floats;
+   private final boolean[] booleans;
+   private final long[]    millis;
+   private transient volatile double[] numbers;
+
+
+   private PackedValues(Kind kind, String unit, String type, int size) {
+      this.kind = kind;
+      this.unit = unit;
+      this.type = type;
+      ints = kind == Kind.INT ? new int[size] : null;
+      floats = kind == Kind.FLOAT ? new float[size] : null;
+      booleans = kind == Kind.BOOLEAN ? new boolean[size] : null;
+      millis = kind == Kind.DATE ? new long[size] : null;
+   }
+
+
+   /**
+    * Packs the values if they are homogeneous, i.e. all have content of the same class, the same type and unit and no
+    * other information.
+    *
+    * @return {@link PackedValues} the packed values, or null if they cannot be packed.
+    */
+   static PackedValues pack(Vector<Value> values) {
+      if (values.size() < MIN_SIZE) {
+         return null;
+      }
+      Value first = values.get(0);
+      Kind kind = kindOf(first.getContent());
+      if (kind == null || first.getType() == null || first.getUnit() == null) {
+         return null;
+      }
+      PackedValues packed = new PackedValues(kind, first.getUnit(), first.getType(), values.size());
+      for (int i = 0; i < values.size(); i++) {
+         Value v = values.get(i);
+         Object content = v.getContent();
+         if (kindOf(content) != kind || !packed.type.equals(v.getType()) || !packed.unit.equals(v.getUnit())
+               || !"".equals(v.getUncertainty()) || !v.getReference().isEmpty() || !v.getDefinition().isEmpty()
+               || !v.getFilename().isEmpty() || !v.getEncoder().isEmpty() || !v.getChecksum().isEmpty()) {
+            return null;
+         }
+         switch (kind) {
+            case INT:
+               packed.ints[i] = (Integer) content;
+               break;
+            case FLOAT:
+               packed.floats[i] = (Float) content;
+               break;
+            case BOOLEAN:
+               packed.booleans[i] = (Boolean) content;
+               break;
+            case DATE:
+               packed.millis[i] = ((Date) content).getTime();
+               break;
+         }
+      }
+      return packed;
+   }
+
+
+   private static Kind kindOf(Object content) {
+      if (content == null) {
+         return null;
+      }
+      Class<?> c = content.getClass();
+      if (c == Integer.class) {
+         return Kind.INT;
+      } else if (c == Float.class) {
+         return Kind.FLOAT;
+      } else if (c == Boolean.class) {
+         return Kind.BOOLEAN;
+      } else if (c == Date.class) {
+         return Kind.DATE;
+      }
+      return null;
+   }
+
+
+   int size() {
+      switch (kind) {
+         case INT:
+            return ints.length;
+         case FLOAT:
+            return floats.length;
+         case BOOLEAN:
+            return booleans.length;
+         default:
+            return millis.length;
+      }
+   }
+
+
+   String getUnit() {
+      return unit;
+   }
+
+
+   String getType() {
+      return type;
+   }
+
+
+   /**
+    * @return {@link Object} the content of the i-th value, boxed like the content of a {@link Value}.
+    */
+   Object get(int i) {
+      switch (kind) {
+         case INT:
+            return ints[i];
+         case FLOAT:
+            return floats[i];
+         case BOOLEAN:
+            return booleans[i];
+         default:
+            return new Date(millis[i]);
+      }
+   }
+
+
+   /**
+    * @return boolean true if the values are int or float numbers.
+    */
+   boolean isNumeric() {
+      return kind == Kind.INT || kind == Kind.FLOAT;
+   }
+
+
+   /**
+    * Returns the i-th value of a numeric property as it is written in the document, see
+    * {@link Property#getNumber(int)}. The decimal values of floats are computed once for all values.
+    */
+   double getNumber(int i) {
+      if (kind == Kind.INT) {
+         return ints[i];
+      }
+      return numbers()[i];
+   }
+
+
+   /**
+    * Copies the numbers of a numeric property into the array.
+    *
+    * @return int the number of copied values.
+    */
+   int getNumbers(double[] dest) {
+      int count = Math.min(dest.length, size());
+      if (kind == Kind.INT) {
+         for (int i = 0; i < count; i++) {
+            dest[i] = ints[i];
+         }
+      } else {
+         System.arraycopy(numbers(), 0, dest, 0, count);
+      }
+      return count;
+   }
+
+
+   private double[] numbers() {
+      double[] temp = numbers;
+      if (temp == null) {
+         temp = new double[floats.length];
+         for (int i = 0; i < temp.length; i++) {
+            temp[i] = Property.toNumber(floats[i]);
+         }
+         numbers = temp;
+      }
+      return temp;
+   }
+
+
+   /**
+    * @return long the i-th value as long, dates as epoch milliseconds and booleans as 1 or 0.
+    */
+   long getLong(int i) {
+      switch (kind) {
+         case INT:
+            return ints[i];
+         case FLOAT:
+            return (long) floats[i];
+         case BOOLEAN:
+            return booleans[i] ? 1 : 0;
+         default:
+            return millis[i];
+      }
+   }
+
+
+   /**
+    * @return {@link Value} a new value equal to the i-th value, not associated with any property.
+    */
+   Value toValue(int i) {
+      return Value.packed(get(i), unit, type);
+   }
+
+
+   /**
+    * @return {@link Vector} new values for all packed values, associated with the property.
+    */
+   Vector<Value> unpack(Property property) {
+      Vector<Value> values = new Vector<Value>(size());
+      for (int i = 0; i < size(); i++) {
+         Value v = toValue(i);
+         v.setAssociatedProperty(property);
+         values.add(v);
+      }
+      return values;
+   }
+}
@@ -15,8 +15,11 @@ package odml.core;
  */
 import java.io.*;
 import java.net.*;
+import java.nio.file.Files;
 import java.text.*;
 import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.swing.tree.TreeNode;
 import org.slf4j.*;
 
@@ -49,6 +52,9 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
    private URL                   mappingURL;
    private Section               parentSection    = null;
    private Vector<Value>         values;
+   private PackedValues          packed;
+   private transient long        contentHash;
+   private transient boolean     contentHashValid = false;
    public static Object[]        columns          = { "name", "reference", "value", "uncertainty",
                                                   "unit",
                                                   "type", "filename",
@@ -58,6 +64,18 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          MATCH_FIRST_CONFLICT_LAST_MATCH = 5, MATCH_INITIALS_ONLY = 10,
          MATCH_FIRST_OR_LAST_ONLY = 20, MATCH_FIRST_INITIAL_LAST = 30, MATCH_FIRST_LAST = 50,
          MATCH_EXACT = 50;
+   private static final ThreadLocal<DecimalFormat> numberFormat = new ThreadLocal<DecimalFormat>() {
+
+      @Override
+      protected DecimalFormat initialValue() {
+         DecimalFormat myDF = new DecimalFormat();
+         myDF.setMaximumFractionDigits(15);
+         myDF.setMinimumFractionDigits(2);
+         myDF.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(Locale.US));
+         myDF.setGroupingUsed(false);
+         return myDF;
+      }
+   };
 
 
    public Property(String name) throws Exception {
@@ -333,6 +351,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public void setName(String name) {
       this.name = name;
+      changed();
    }
 
 
@@ -358,6 +377,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          this.definition = definition;
       else
          definition = "";
+      changed();
    }
 
 
@@ -417,13 +437,11 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Float} the converted contend, or Float.NaN if conversion fails.
     */
    public double getNumber(int i) {
-      DecimalFormat myDF = new DecimalFormat();
-      myDF.setMaximumFractionDigits(15);
-      myDF.setMinimumFractionDigits(2);
-      myDF.setDecimalFormatSymbols(DecimalFormatSymbols.getInstance(Locale.US));
-      myDF.setGroupingUsed(false);
+      if (packed != null && packed.isNumeric() && i >= 0 && i < packed.size()) {
+         return packed.getNumber(i);
+      }
       try {
-         return (myDF.parse(getValue(i).toString())).doubleValue();
+         return toNumber(getValue(i));
       } catch (ParseException e) {
          logger.error("Value " + i + " can not be converted to float!");
          return Double.NaN;
@@ -431,6 +449,63 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
    }
 
 
+   /**
+    * Copies the contents of the values as numbers into the array, like {@link #getNumber(int)} but without the
+    * overhead per value. Values that cannot be converted are stored as Double.NaN.
+    *
+    * @param dest
+    * double[] the array, if it is shorter than the number of values only the first values are copied.
+    * @return {@link Integer} the number of copied values.
+    */
+   public int getNumbers(double[] dest) {
+      if (packed != null && packed.isNumeric()) {
+         return packed.getNumbers(dest);
+      }
+      int count = Math.min(dest.length, valueCount());
+      for (int i = 0; i < count; i++) {
+         dest[i] = getNumber(i);
+      }
+      return count;
+   }
+
+
+   /**
+    * Returns a {@link ValueCursor} to iterate over the values of this property without creating intermediate
+    * vectors. The property must not be changed while the cursor is used.
+    *
+    * @return {@link ValueCursor} the cursor, positioned before the first value.
+    */
+   public ValueCursor cursor() {
+      if (packed != null) {
+         return new ValueCursor(packed);
+      }
+      return new ValueCursor(values);
+   }
+
+
+   /**
+    * Converts value content to a number as it is written in the document, e.g. the float 0.1 to 0.1 and not to its
+    * binary approximation. Numbers are converted directly, other content is parsed from its text.
+    *
+    * @throws ParseException
+    * if the content is not a number.
+    */
+   static double toNumber(Object content) throws ParseException {
+      if (content instanceof Float) {
+         return toNumber(((Float) content).floatValue());
+      } else if (content instanceof Integer || content instanceof Double || content instanceof Long
+            || content instanceof Short || content instanceof Byte) {
+         return ((Number) content).doubleValue();
+      }
+      return numberFormat.get().parse(content.toString()).doubleValue();
+   }
+
+
+   static double toNumber(float content) {
+      return Double.parseDouble(Float.toString(content));
+   }
+
+
    /**
     * Returns the first value's content as {@link String}.
     *
@@ -569,21 +644,22 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          }
          Value toAdd = new Value(value, unit, uncertainty, type, filename, comment, id);
          toAdd.setAssociatedProperty(this);
-         if (values.contains(toAdd)) {
+         if (unpacked().contains(toAdd)) {
             logger.error("! value to add already existing in property!");
             return false;
          }
-         values.add(toAdd);
+         unpacked().add(toAdd);
+         changed();
          if (type != null && (!type.isEmpty())) {
-            if ((values.get(0).getType() != null) && (!values.get(0).getType().isEmpty())
-                  && (!type.equalsIgnoreCase(values.get(0).getType()))) {
+            if ((valueAt(0).getType() != null) && (!valueAt(0).getType().isEmpty())
+                  && (!type.equalsIgnoreCase(valueAt(0).getType()))) {
                logger.warn("! type of newly added value (" + type
                      + ") differs from the one of the first value "
-                     + "of the proprty (" + values.get(0).getType()
+                     + "of the proprty (" + valueAt(0).getType()
                      + ") > should be the same! index of newly "
-                     + "added value is " + (values.size() - 1)
+                     + "added value is " + (valueCount() - 1)
                      + "; can be updated later with setType(newType)");
-            } else if ((values.get(0).getType() == null) || (values.get(0).getType().isEmpty())) {
+            } else if ((valueAt(0).getType() == null) || (valueAt(0).getType().isEmpty())) {
                this.setType(type);
             }
          }
@@ -605,8 +681,9 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
       for (int i = 0; i < property.valueCount(); i++) {
          Value val = property.getWholeValue(i);
          val.setAssociatedProperty(this);
-         this.values.add(val);
+         unpacked().add(val);
       }
+      changed();
    }
 
 
@@ -619,7 +696,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean} true if operation succeeded, false if more than on value = value-content is stored.
     */
    public boolean setValue(Object value) {
-      if (this.values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! property has more than one value > index must be specified to know which one shall be set");
          return false;
@@ -645,7 +722,9 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
       }
       try {
          Value toAdd = new Value(value, null);
-         this.values.set(index, toAdd);
+         toAdd.setAssociatedProperty(this);
+         unpacked().set(index, toAdd);
+         changed();
          logger.info("Property.setValueAt: successfully set value at index " + index);
       } catch (Exception e) {
          logger.error("Property.setValueAt: An exception occurred! ", e);
@@ -663,7 +742,48 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Integer}: the number of values stored in this property.
     */
    public int valueCount() {
-      return this.values.size();
+      return packed != null ? packed.size() : values.size();
+   }
+
+
+   /**
+    * Returns the i-th value for reading. For packed properties this is a new value that is not associated with the
+    * property, changes to it are lost. Use {@link #getWholeValue(int)} to change a value.
+    */
+   Value valueAt(int index) {
+      return packed != null ? packed.toValue(index) : values.get(index);
+   }
+
+
+   /**
+    * Returns the values as {@link Value} objects, unpacking them first if they are stored in a primitive array.
+    */
+   private Vector<Value> unpacked() {
+      if (packed != null) {
+         values = packed.unpack(this);
+         packed = null;
+      }
+      return values;
+   }
+
+
+   /**
+    * Stores the values in a primitive array if they are homogeneous int, float, boolean or date values without any
+    * further information and there are at least {@link PackedValues#MIN_SIZE} of them. The values are transparently
+    * unpacked again when one of them is changed or requested with {@link #getWholeValue(int)}.
+    *
+    * @return boolean true if the values are packed.
+    */
+   boolean pack() {
+      if (packed == null) {
+         PackedValues temp = PackedValues.pack(values);
+         if (temp == null) {
+            return false;
+         }
+         packed = temp;
+         values = null;
+      }
+      return true;
    }
 
 
@@ -675,8 +795,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Integer}: the values index or -1 if the value does not exist.
     */
    public int getValueIndex(Object value) {
-      for (int i = 0; i < values.size(); i++) {
-         if (values.get(i).getContent().equals(value))
+      for (int i = 0; i < valueCount(); i++) {
+         if (valueAt(i).getContent().equals(value))
             return i;
       }
       logger.error("! can't find index of specified value!");
@@ -694,8 +814,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Integer}: the index or -1 if the value was not found.
     */
    public int getValueIndex(Object value, int index) {
-      for (int i = index; i < values.size(); i++) {
-         if (values.get(i).getContent().equals(value))
+      for (int i = index; i < valueCount(); i++) {
+         if (valueAt(i).getContent().equals(value))
             return i;
       }
       logger.error("! can't find index of specified value!");
@@ -710,13 +830,27 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Vector<Object> getValues() {
       Vector<Object> toReturn = new Vector<Object>();
-      for (int i = 0; i < this.values.size(); i++) {
-         toReturn.add(this.values.get(i).getContent());
+      for (int i = 0; i < valueCount(); i++) {
+         toReturn.add(valueAt(i).getContent());
       }
       return toReturn;
    }
 
 
+   /**
+    * Returns a stream of the values stored in this property. In contrast to {@link #getValues()} no intermediate
+    * {@link Vector} is created.
+    *
+    * @return {@link Stream} of the value contents, may be empty.
+    */
+   public Stream<Object> values() {
+      if (packed != null) {
+         return IntStream.range(0, packed.size()).mapToObj(packed::get);
+      }
+      return values.stream().map(Value::getContent);
+   }
+
+
    /**
     * Returns the first value
     *
@@ -736,7 +870,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Object getValue(int index) {
       try {
-         return this.values.get(index).getContent();
+         return packed != null ? packed.get(index) : values.get(index).getContent();
       } catch (Exception e) {
          logger.error("", e);
          return null;
@@ -763,7 +897,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Value getWholeValue(int index) {
       try {
-         return this.values.get(index);
+         return unpacked().get(index);
       } catch (Exception e) {
          logger.error("", e);
          return null;
@@ -784,14 +918,15 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          return false;
       }
       int index = -1;
-      for (int i = 0; i < this.values.size(); i++) {
+      for (int i = 0; i < valueCount(); i++) {
          index = getValueIndex(value);
       }
       if (index < 0) {
          logger.error("! value for removal not existing!");
          return false;
       }
-      this.values.remove(index);
+      unpacked().remove(index);
+      changed();
       return true;
    }
 
@@ -804,7 +939,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean}: true if removal was successful, false if index out of bounds.
     */
    public boolean removeValue(int index) {
-      if (this.values.size() <= index) {
+      if (valueCount() <= index) {
          logger.error("! specified index for removing value out of range!");
          return false;
       }
@@ -812,14 +947,15 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          logger.error("! specified index for removing value mut be greater than 0 !");
          return false;
       }
-      this.values.remove(index);
+      unpacked().remove(index);
+      changed();
       return true;
    }
 
 
    public void removeEmptyValues() {
       for (int i = valueCount() - 1; i >= 0; i--) {
-         if (getWholeValue(i).isEmpty()) {
+         if (valueAt(i).isEmpty()) {
             removeValue(i);
          }
       }
@@ -838,7 +974,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          return isEmpty;
       else {
          for (int i = 0; i < valueCount(); i++) {
-            isEmpty = isEmpty & getWholeValue(i).isEmpty();
+            isEmpty = isEmpty & valueAt(i).isEmpty();
          }
       }
       return isEmpty;
@@ -854,7 +990,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * property.
     */
    public boolean setValueReference(String reference) {
-      if (this.values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! property has more than one value > index must be specified to know which id to set!");
          return false;
@@ -907,11 +1043,11 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean}: true if new id was set, false if index out of bounds.
     */
    public boolean setValueReferenceAt(String reference, int index) {
-      if (this.values.size() <= index || index < 0) {
+      if (valueCount() <= index || index < 0) {
          logger.error("! specified index for settingValueId out of range!");
          return false;
       }
-      this.values.get(index).setReference(reference);
+      unpacked().get(index).setReference(reference);
       return true;
    }
 
@@ -935,8 +1071,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Vector<String> getValueReferences() {
       Vector<String> toReturn = new Vector<String>();
-      for (int i = 0; i < values.size(); i++) {
-         toReturn.add(values.get(i).getReference());
+      for (int i = 0; i < valueCount(); i++) {
+         toReturn.add(valueAt(i).getReference());
       }
       return toReturn;
    }
@@ -952,7 +1088,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public String getValueReference(int index) {
       try {
-         String reference = this.values.get(index).getReference();
+         String reference = valueAt(index).getReference();
          if (reference != null && reference.isEmpty()) {
             logger.error("! no id stored for given value specified by its index!");
             return null;
@@ -974,7 +1110,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * property.
     */
    public boolean setValueUncertainty(Object uncertainty) {
-      if (this.values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! property has more than one value > index must be specified to know which uncertainty to set!");
          return false;
@@ -993,11 +1129,11 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean}: true if new error was set, false if index out of bounds.
     */
    public boolean setValueUncertaintyAt(Object uncertainty, int index) {
-      if (this.values.size() <= index || index < 0) {
+      if (valueCount() <= index || index < 0) {
          logger.error("! given index for setting uncertainty out of range!");
          return false;
       }
-      this.values.get(index).setUncertainty(uncertainty);
+      unpacked().get(index).setUncertainty(uncertainty);
       return true;
    }
 
@@ -1009,8 +1145,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Vector<Object> getValueUncertainties() {
       Vector<Object> toReturn = new Vector<Object>();
-      for (int i = 0; i < this.values.size(); i++) {
-         toReturn.add(this.values.get(i).getUncertainty());
+      for (int i = 0; i < valueCount(); i++) {
+         toReturn.add(valueAt(i).getUncertainty());
       }
       return toReturn;
    }
@@ -1023,7 +1159,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * if there are more values existing
     */
    public Object getValueUncertainty() {
-      if (values.size() > 1) {
+      if (valueCount() > 1) {
          logger.error("! more than one value existing > index of value must be specified to know "
                + "which uncertainty shall be returned!");
          return null;
@@ -1042,7 +1178,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Object getValueUncertainty(int index) {
       try {
-         Object unctr = this.values.get(index).getUncertainty();
+         Object unctr = valueAt(index).getUncertainty();
          if (unctr == null) {
             return null;
          } else if (unctr.toString().isEmpty()) {
@@ -1066,7 +1202,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * property.
     */
    public boolean setValueDefinition(String definition) {
-      if (this.values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! property has more than one value > index must be specified to know which valueComment to set!");
          return false;
@@ -1085,11 +1221,11 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean}: true if new definition was set, false if index out of bounds.
     */
    public boolean setValueDefinitionAt(String definition, int index) {
-      if (this.values.size() <= index || index < 0) {
+      if (valueCount() <= index || index < 0) {
          logger.error("! given index for setting valueComment out of range!");
          return false;
       }
-      this.values.get(index).setDefinition(definition);
+      unpacked().get(index).setDefinition(definition);
       return true;
    }
 
@@ -1101,8 +1237,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public Vector<String> getValueDefinitions() {
       Vector<String> toReturn = new Vector<String>();
-      for (int i = 0; i < values.size(); i++) {
-         toReturn.add(values.get(i).getDefinition());
+      for (int i = 0; i < valueCount(); i++) {
+         toReturn.add(valueAt(i).getDefinition());
       }
       return toReturn;
    }
@@ -1118,7 +1254,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public String getValueDefinition(int index) {
       try {
-         String comment = this.values.get(index).getDefinition();
+         String comment = valueAt(index).getDefinition();
          if (comment != null && comment.isEmpty()) {
             // logger.error("! no valueComment found for value specified by it's index!");
             return null;
@@ -1207,26 +1343,48 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
             this.setDependency(otherProperty.getDependency());
          }
       }
+      // values are matched by their content
+      HashMap<Object, Integer> index = new HashMap<Object, Integer>();
+      for (int i = valueCount() - 1; i >= 0; i--) {
+         index.put(contentKey(valueAt(i).getContent()), i);
+      }
       for (int i = 0; i < otherProperty.valueCount(); i++) {
-         if (this.values.contains(otherProperty.getValue(i))) {
-            mergeValue(this.values.indexOf(otherProperty.getValue(i)), otherProperty, i,
-                  mergeOption);
+         Object content = otherProperty.getValue(i);
+         Integer match = index.get(contentKey(content));
+         if (match != null) {
+            mergeValue(match, otherProperty, i, mergeOption);
          } else {
             if (mergeOption == Section.MERGE_COMBINE) {
-               this.addValue(otherProperty.getValue(i), otherProperty.getValueReference(i),
+               if (this.addValue(content, otherProperty.valueReference(i),
                      otherProperty
                            .getValueUncertainty(i), otherProperty.getFilename(i), otherProperty
-                           .getValueDefinition(i));
+                           .getValueDefinition(i))) {
+                  index.put(contentKey(valueAt(valueCount() - 1).getContent()), valueCount() - 1);
+               }
             } else if (mergeOption == Section.MERGE_OTHER_OVERRIDES_THIS && this.valueCount() == 1) {
-               setValueAt(otherProperty.getValue(), i);
-               mergeValue(this.values.indexOf(otherProperty.getValue(i)), otherProperty, i,
-                     mergeOption);
+               if (setValueAt(content, 0)) {
+                  index.clear();
+                  index.put(contentKey(valueAt(0).getContent()), 0);
+                  mergeValue(0, otherProperty, i, mergeOption);
+               }
             }
          }
       }
    }
 
 
+   /**
+    * Returns the key under which a value content is hashed when merging. URLs are compared by their text since
+    * {@link URL#hashCode()} resolves the host name.
+    */
+   private static Object contentKey(Object content) {
+      if (content instanceof URL) {
+         return content.toString();
+      }
+      return content;
+   }
+
+
    /**
     * Validates this {@link Property} against the definition in a terminology.
     * Method will cause logger Warnings in case validation did not succeed.
@@ -1234,25 +1392,34 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @param terminologyProperty The {@link Property} as it is defined in the terminology.
     */
    public void validate(Property terminologyProperty) {
+      validate(terminologyProperty, null);
+   }
+
+
+   /**
+    * Validates this property and its values like {@link #validate(Property)}, adding the issues to the report.
+    *
+    * @param terminologyProperty
+    * {@link Property} the property as defined in the terminology.
+    * @param report
+    * {@link ValidationReport} the report, null to log the issues.
+    */
+   public void validate(Property terminologyProperty, ValidationReport report) {
       if (definition != null && !definition.isEmpty()) {
          if (!this.definition.equalsIgnoreCase(terminologyProperty.getDefinition())) {
-            logger
-                  .warn("Property: "
-                        + this.getName()
-                        + "contains a 'definition' that differs from terminology! Kept original definition!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.DEFINITION_DEVIATES,
+                  parentSection, this, null, terminologyProperty.getDefinition(), definition));
          }
       }
       if (terminologyProperty.getDependency() != null
             && !terminologyProperty.getDependency().isEmpty()) {
          if (this.getParent() != null
                && !this.getParent().containsProperty(terminologyProperty.getDependency())) {
-            logger.warn("Validation error on Property: " + this.getParent().getPath() + "#"
-                  + this.getName() + "! \n Terminology requests a sibling property with the name: "
-                  +
-                  terminologyProperty.getName() + " which was not found!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.DEPENDENCY_MISSING,
+                  parentSection, this, null, terminologyProperty.getDependency(), null));
          } else {
             if (terminologyProperty.getDependencyValue() != null
-                  && !terminologyProperty.getDependencyValue().isEmpty()) {
+                  && !terminologyProperty.getDependencyValue().isEmpty() && getParent() != null) {
                String terminolgyValue = terminologyProperty.getDependencyValue();
                Property dependencyProperty = getParent().getProperty(
                      terminologyProperty.getDependency());
@@ -1266,16 +1433,23 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
                   }
                }
                if (!match)
-                  logger.warn("Validation error on Property: " + this.getParent().getPath()
-                        + "#" + this.getName()
-                        + "! \n Terminology requests a sibling property with the name: " +
-                        terminologyProperty.getName() + " that contains the value: "
-                        + dependencyValue + "! No match was found!");
+                  ValidationReport.report(report, logger, new ValidationIssue(
+                        ValidationIssue.Rule.DEPENDENCY_VALUE_MISSING, parentSection, this, null, terminolgyValue,
+                        values));
             }
          }
       }
       for (int i = 0; i < valueCount(); i++) {
-         values.get(i).validate(terminologyProperty);
+         Value value = valueAt(i);
+         if (packed != null) {
+            if (value.isCompletedBy(terminologyProperty)) {
+               // packed values share their type and unit, they are unpacked only to take them from the terminology
+               value = unpacked().get(i);
+            } else {
+               value.setAssociatedProperty(this);
+            }
+         }
+         value.validate(terminologyProperty, report);
       }
    }
 
@@ -1304,81 +1478,75 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    private void mergeValue(int thisValueIndex, Property otherProperty, int otherValueIndex,
                            int mergeOption) {
+      // only information the other value actually has is merged, setting null would only cause errors
+      String otherDefinition = otherProperty.getValueDefinition(otherValueIndex);
+      Object otherUncertainty = otherProperty.getValueUncertainty(otherValueIndex);
+      String otherFilename = otherProperty.getValueFilename(otherValueIndex);
+      String otherReference = otherProperty.valueReference(otherValueIndex);
       switch (mergeOption) {
          case Section.MERGE_THIS_OVERRIDES_OTHER:
-            if (this.getValueDefinition(thisValueIndex) == null) {
-               this.setValueDefinitionAt(otherProperty.getValueDefinition(otherValueIndex),
-                     thisValueIndex);
+            if (this.getValueDefinition(thisValueIndex) == null && otherDefinition != null) {
+               this.setValueDefinitionAt(otherDefinition, thisValueIndex);
             }
-            if (this.getValueUncertainty(thisValueIndex) == null) {
-               this.setValueUncertaintyAt(otherProperty.getValueUncertainty(otherValueIndex),
-                     thisValueIndex);
+            if (this.getValueUncertainty(thisValueIndex) == null && otherUncertainty != null) {
+               this.setValueUncertaintyAt(otherUncertainty, thisValueIndex);
             }
-            if (this.getValueFilename(thisValueIndex) == null) {
-               this.setValueFilenameAt(otherProperty.getValueFilename(otherValueIndex),
-                     thisValueIndex);
+            if (this.getValueFilename(thisValueIndex) == null && otherFilename != null) {
+               this.setValueFilenameAt(otherFilename, thisValueIndex);
             }
-            if (this.getValueReference(thisValueIndex) == null) {
-               this.setValueReferenceAt(otherProperty.getValueReference(otherValueIndex),
-                     thisValueIndex);
+            if (this.valueReference(thisValueIndex) == null && otherReference != null) {
+               this.setValueReferenceAt(otherReference, thisValueIndex);
             }
             break;
          case Section.MERGE_OTHER_OVERRIDES_THIS:
-            if (this.getValueDefinition(thisValueIndex) == null) {
-               this.setValueDefinitionAt(otherProperty.getValueDefinition(otherValueIndex),
-                     thisValueIndex);
-            } else if (otherProperty.getValueDefinition(otherValueIndex) != null) {
-               this.setValueDefinitionAt(otherProperty.getValueDefinition(otherValueIndex),
-                     thisValueIndex);
+            if (otherDefinition != null) {
+               this.setValueDefinitionAt(otherDefinition, thisValueIndex);
             }
-            if (this.getValueUncertainty(thisValueIndex) == null) {
-               this.setValueUncertaintyAt(otherProperty.getValueUncertainty(otherValueIndex),
-                     thisValueIndex);
-            } else if (otherProperty.getValueUncertainty(otherValueIndex) != null) {
-               this.setValueUncertaintyAt(otherProperty.getValueUncertainty(otherValueIndex),
-                     thisValueIndex);
+            if (otherUncertainty != null) {
+               this.setValueUncertaintyAt(otherUncertainty, thisValueIndex);
             }
-            if (this.getValueFilename(thisValueIndex) == null) {
-               this.setValueFilenameAt(otherProperty.getValueFilename(otherValueIndex),
-                     thisValueIndex);
-            } else if (otherProperty.getValueFilename(otherValueIndex) != null) {
-               this.setValueFilenameAt(otherProperty.getValueFilename(otherValueIndex),
-                     thisValueIndex);
+            if (otherFilename != null) {
+               this.setValueFilenameAt(otherFilename, thisValueIndex);
             }
-            if (this.getValueReference(thisValueIndex) == null) {
-               this.setValueReferenceAt(otherProperty.getValueReference(otherValueIndex),
-                     thisValueIndex);
-            } else if (otherProperty.getValueReference(otherValueIndex) != null) {
-               this.setValueReferenceAt(otherProperty.getValueReference(otherValueIndex),
-                     thisValueIndex);
+            if (otherReference != null) {
+               this.setValueReferenceAt(otherReference, thisValueIndex);
             }
             break;
          case Section.MERGE_COMBINE:
             if (this.getValueDefinition(thisValueIndex) == null) {
-               this.setValueDefinitionAt(otherProperty.getValueDefinition(otherValueIndex),
-                     thisValueIndex);
-            } else if (otherProperty.getValueDefinition(otherValueIndex) != null) {
+               if (otherDefinition != null) {
+                  this.setValueDefinitionAt(otherDefinition, thisValueIndex);
+               }
+            } else if (otherDefinition != null) {
                this.setValueDefinitionAt(this.getValueDefinition(thisValueIndex) + "\n"
-                     + otherProperty.getValueDefinition(otherValueIndex), thisValueIndex);
+                     + otherDefinition, thisValueIndex);
             }
-            if (this.getValueUncertainty(thisValueIndex) == null) {
-               this.setValueUncertaintyAt(otherProperty.getValueUncertainty(otherValueIndex),
-                     thisValueIndex);
+            if (this.getValueUncertainty(thisValueIndex) == null && otherUncertainty != null) {
+               this.setValueUncertaintyAt(otherUncertainty, thisValueIndex);
             }
-            if (this.getValueFilename(thisValueIndex) == null) {
-               this
-                     .setValueFilenameAt(otherProperty.getValueFilename(otherValueIndex),
-                           thisValueIndex);
+            if (this.getValueFilename(thisValueIndex) == null && otherFilename != null) {
+               this.setValueFilenameAt(otherFilename, thisValueIndex);
             }
-            if (this.getValueReference(thisValueIndex) == null) {
-               this.setValueReferenceAt(otherProperty.getValueReference(otherValueIndex),
-                     thisValueIndex);
+            if (this.valueReference(thisValueIndex) == null && otherReference != null) {
+               this.setValueReferenceAt(otherReference, thisValueIndex);
             }
             break;
       }
    }
 
 
+   /**
+    * Same as {@link #getValueReference(int)} but without logging an error if no reference is stored.
+    */
+   private String valueReference(int index) {
+      String reference = valueAt(index).getReference();
+      if (reference != null && reference.isEmpty()) {
+         return null;
+      }
+      return reference;
+   }
+
+
    /**
     * Checking name and if necessary converting to CamelCase leading characters that are not alphabetical get P_ at the
     * beginning
@@ -1406,28 +1574,90 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
 
 
    /**
-    * Creates a copy of this property.
+    * Creates a copy of this property. Equivalent to clone(), the exceptions are only declared for compatibility and
+    * are no longer thrown.
     *
     * @return {@link Property} the copy.
     * @throws IOException
     * @throws ClassNotFoundException
     */
    public Property copy() throws IOException, ClassNotFoundException {
-      File tempFile = File.createTempFile("property", ".ser");
-      tempFile.deleteOnExit();
-      ObjectOutputStream objOut = new ObjectOutputStream(new BufferedOutputStream(
-            new FileOutputStream(tempFile)));
-      objOut.writeObject(this);
-      objOut.close();
-
-      ObjectInputStream objIn = new ObjectInputStream(new BufferedInputStream(new FileInputStream(
-            tempFile)));
-      Property copy = (Property) objIn.readObject();
-      objIn.close();
+      return clone();
+   }
+
+
+   /**
+    * Creates an in-memory deep copy of this property and its values. The copy has no parent section.
+    *
+    * @return {@link Property} the copy.
+    */
+   @Override
+   public Property clone() {
+      Property copy = null;
+      try {
+         copy = (Property) super.clone();
+      } catch (CloneNotSupportedException e) {
+         throw new InternalError(e.toString());
+      }
+      copy.parentSection = null;
+      if (packed != null) {
+         // packed values are immutable and shared
+         return copy;
+      }
+      copy.values = new Vector<Value>(values.size());
+      for (int i = 0; i < values.size(); i++) {
+         Value v = values.get(i).clone();
+         v.setAssociatedProperty(copy);
+         copy.values.add(v);
+      }
       return copy;
    }
 
 
+   /**
+    * Returns a 64 bit hash of the content of this property, i.e. of its name, its information and all its values. The
+    * hash is cached until the property or one of its values is changed.
+    *
+    * @return long the content hash.
+    */
+   public long getContentHash() {
+      if (!contentHashValid) {
+         contentHash = ContentHash.of(this);
+         contentHashValid = true;
+      }
+      return contentHash;
+   }
+
+
+   /**
+    * Marks the content hash of this property and of the sections containing it as outdated and reports the change to
+    * the {@link TreeListener}s.
+    */
+   void changed() {
+      contentHashValid = false;
+      if (parentSection != null) {
+         parentSection.invalidateContentHash();
+         TreeEvents.fire(parentSection, TreeEvent.Type.PROPERTY_CHANGED, null, this, null);
+      }
+   }
+
+
+   /**
+    * Returns whether the other property has the same name, information and values. Properties with different content
+    * hashes are told apart without comparing their values.
+    * 
+    * @param other
+    *            {@link Property} the other property.
+    * @return boolean true if the properties have equal content.
+    */
+   public boolean contentEquals(Property other) {
+      if (this == other) {
+         return true;
+      }
+      return other != null && getContentHash() == other.getContentHash() && ContentHash.equal(this, other);
+   }
+
+
    /**
     * Returns the property as an {@link Vector} of Objects. If there is more than one value, the first is returned.
     * "name","value"
@@ -1437,13 +1667,13 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
    public Vector<Object> getPropertyAsVector() {
       Vector<Object> propertyVector = new Vector<Object>();
       propertyVector.add(name);
-      propertyVector.add(values.get(0).getReference());
-      propertyVector.add(values.get(0).getContent());
-      propertyVector.add(values.get(0).getUncertainty());
-      propertyVector.add(values.get(0).getUnit());
-      propertyVector.add(values.get(0).getType());
-      propertyVector.add(values.get(0).getFilename());
-      propertyVector.add(values.get(0).getDefinition());
+      propertyVector.add(valueAt(0).getReference());
+      propertyVector.add(valueAt(0).getContent());
+      propertyVector.add(valueAt(0).getUncertainty());
+      propertyVector.add(valueAt(0).getUnit());
+      propertyVector.add(valueAt(0).getType());
+      propertyVector.add(valueAt(0).getFilename());
+      propertyVector.add(valueAt(0).getDefinition());
       propertyVector.add(definition);
       propertyVector.add(dependency);
       propertyVector.add(dependencyValue);
@@ -1461,19 +1691,19 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * returned.
     */
    public Vector<Object> getPropertyAsVector(int index) {
-      if (index >= values.size()) {
+      if (index >= valueCount()) {
          return null;
       }
       try {
          Vector<Object> propertyVector = new Vector<Object>();
          propertyVector.add(name);
-         propertyVector.add(values.get(index).getReference());
-         propertyVector.add(values.get(index).getContent());
-         propertyVector.add(values.get(index).getUncertainty());
-         propertyVector.add(values.get(index).getUnit());
-         propertyVector.add(values.get(index).getType());
-         propertyVector.add(values.get(index).getFilename());
-         propertyVector.add(values.get(index).getDefinition());
+         propertyVector.add(valueAt(index).getReference());
+         propertyVector.add(valueAt(index).getContent());
+         propertyVector.add(valueAt(index).getUncertainty());
+         propertyVector.add(valueAt(index).getUnit());
+         propertyVector.add(valueAt(index).getType());
+         propertyVector.add(valueAt(index).getFilename());
+         propertyVector.add(valueAt(index).getDefinition());
          propertyVector.add(definition);
          propertyVector.add(dependency);
          propertyVector.add(dependencyValue);
@@ -1493,7 +1723,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link String}
     */
    public String getUnit() {
-      if (values.size() > 1) {
+      if (valueCount() > 1) {
          logger.error("! property '" + this.getName()
                + "' has more than one value > index must be specified to know which unit shall be"
                + " returned!");
@@ -1509,7 +1739,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link String}
     */
    public String getUnit(int index) {
-      return values.get(index).getUnit();
+      return valueAt(index).getUnit();
    }
 
 
@@ -1519,7 +1749,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link String}
     */
    public String getType() {
-      return this.values.get(0).getType();
+      return packed != null ? packed.getType() : values.get(0).getType();
    }
 
 
@@ -1548,7 +1778,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * or null if the index is out of range.
     */
    public String getValueFilename() {
-      if (values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! property has more than one value > index for returning filename must be specified");
          return null;
@@ -1566,7 +1796,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public String getValueFilename(int index) {
       try {
-         String filename = this.values.get(index).getFilename();
+         String filename = valueAt(index).getFilename();
          if (filename != null && filename.isEmpty()) {
             return null;
          }
@@ -1602,6 +1832,50 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
    }
 
 
+   /**
+    * Verifies the checksum of the binary content of the specified value in one pass over the decoded bytes.
+    * 
+    * @param index int: the index of the value.
+    * @return boolean false if the content does not match its checksum, true if it matches or there is no checksum of
+    *         a supported algorithm (CRC32C, SHA-256, CRC32).
+    */
+   public boolean verifyValueChecksum(int index) {
+      if (index < 0 || index >= valueCount()) {
+         logger.error("! index out of range!");
+         return false;
+      }
+      return valueAt(index).verifyChecksum();
+   }
+
+
+   /**
+    * Verifies the checksums of all values of this property.
+    */
+   boolean verifyValueChecksums() {
+      boolean valid = true;
+      for (int i = 0; i < valueCount(); i++) {
+         valid &= valueAt(i).verifyChecksum();
+      }
+      return valid;
+   }
+
+
+   /**
+    * Computes the checksum of the binary content of the specified value and stores it in the value.
+    * 
+    * @param index int: the index of the value.
+    * @param algorithm {@link String}: the algorithm, 'CRC32C' or 'SHA-256'.
+    * @return boolean true if the checksum was stored, false if the value is not binary or the algorithm not supported.
+    */
+   public boolean updateValueChecksum(int index, String algorithm) {
+      if (index < 0 || index >= valueCount()) {
+         logger.error("! index out of range!");
+         return false;
+      }
+      return unpacked().get(index).updateChecksum(algorithm);
+   }
+
+
    /**
     * Returns the encoder of the first value. 
     * @return a {@link String} indicating the encoder or empty string.  
@@ -1634,6 +1908,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public void setMapping(URL mappingURL) {
       this.mappingURL = mappingURL;
+      changed();
    }
 
 
@@ -1658,6 +1933,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    public void removePropertyMapping() {
       this.mappingURL = null;
+      changed();
    }
 
 
@@ -1671,8 +1947,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
       if (valueCount() > 1)
          logger
                .warn("You ask me to set the unit but there are many values. Changed the units for all values!");
-      for (int i = 0; i < values.size(); i++) {
-         values.get(i).setUnit(unit);
+      for (int i = 0; i < valueCount(); i++) {
+         unpacked().get(i).setUnit(unit);
       }
    }
 
@@ -1694,7 +1970,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * {@link String} the new unit.
     */
    public void setUnitAt(String unit, int index) {
-      values.get(index).setUnit(unit);
+      unpacked().get(index).setUnit(unit);
    }
 
 
@@ -1705,8 +1981,8 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * {@link String}: the type of data represented by this property.
     */
    public void setType(String type) {
-      for (int i = 0; i < values.size(); i++) {
-         values.get(i).setType(type);
+      for (int i = 0; i < valueCount(); i++) {
+         unpacked().get(i).setType(type);
       }
    }
 
@@ -1723,6 +1999,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          this.dependency = dependency;
       else
          this.dependency = "";
+      changed();
    }
 
 
@@ -1737,6 +2014,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          this.dependencyValue = dependencyValue;
       else
          this.dependencyValue = "";
+      changed();
    }
 
 
@@ -1748,7 +2026,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * @return {@link Boolean} true if operation succeeded, false if more than one value existing
     */
    public boolean setReference(String reference) {
-      if (this.values.size() > 1) {
+      if (valueCount() > 1) {
          logger
                .error("! Property has more than one value > index must be specified to know which reference shall be set!");
          return false;
@@ -1758,7 +2036,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
 
 
    public boolean setReferenceAt(String reference, int index) {
-      this.values.get(index).setReference(reference);
+      unpacked().get(index).setReference(reference);
       return true;
    }
 
@@ -1817,15 +2095,15 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     */
    @Deprecated
    public boolean setDefaultFileNameAt(String filename, int index) {
-      if (this.values.size() <= index || index < 0) {
+      if (valueCount() <= index || index < 0) {
          logger.error("! index of value for setting filename out of range!");
          return false;
       }
-      if (!this.values.get(0).getType().equalsIgnoreCase("binary")) {
+      if (OdmlType.resolve(valueAt(0).getType()) != OdmlType.BINARY) {
          logger.error("! type of property must be binary if filename shall be set!");
          return false;
       }
-      this.values.get(index).setFilename(filename);
+      unpacked().get(index).setFilename(filename);
       return true;
    }
 
@@ -1842,15 +2120,15 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * 
     */
    public boolean setValueFilenameAt(String filename, int index) {
-      if (this.values.size() <= index || index < 0) {
+      if (valueCount() <= index || index < 0) {
          logger.error("! index of value for setting filename out of range!");
          return false;
       }
-      if (!this.values.get(0).getType().equalsIgnoreCase("binary")) {
+      if (OdmlType.resolve(valueAt(0).getType()) != OdmlType.BINARY) {
          logger.error("! type of property must be binary if filename shall be set!");
          return false;
       }
-      this.values.get(index).setFilename(filename);
+      unpacked().get(index).setFilename(filename);
       return true;
    }
 
@@ -1880,11 +2158,11 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
 
       File outFile = new File(filename);
       if (outFile.isDirectory()) {
-         if (values.get(0).getFilename().isEmpty()) {
+         if (valueAt(0).getFilename().isEmpty()) {
             throw new Exception(
                   "Property does not define a default file name. Please provide a full file name.");
          }
-         outFile = new File(filename + values.get(0).getFilename());
+         outFile = new File(filename + valueAt(0).getFilename());
       }
       writeBinary(outFile, 0);
    }
@@ -1987,21 +2265,47 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
     * {@link Integer}: the index of the value.
     */
    private void writeBinary(File outFile, int index) throws Exception {
-      if (!this.values.get(0).getType().equalsIgnoreCase("binary")) {
+      if (OdmlType.resolve(valueAt(0).getType()) != OdmlType.BINARY) {
          logger.error("Property value is not of type binary!");
          return;
       }
       if (index < 0) {
          logger.error("!index specified for writing value to disc out of range!");
          return;
-      } else if (index > values.size() - 1) {
+      } else if (index > valueCount() - 1) {
          logger.error("!index specified for writing value to disc out of range!");
          return;
       }
       if (outFile.exists()) {
          throw new Exception("File already exists please provide a different file name.");
       }
-      Value.writeBinaryToDisc(values.get(index).getContent().toString(), outFile);
+      InputStream in = valueAt(index).openBinary();
+      if (in == null) {
+         logger.error("Property value has no content!");
+         return;
+      }
+      String checksum = valueAt(index).getChecksum();
+      String algorithm = Checksum.algorithmOf(checksum);
+      try {
+         if (algorithm == null || !Checksum.isSupported(algorithm)) {
+            Files.copy(in, outFile.toPath());
+            return;
+         }
+         // the checksum is verified while writing, a corrupt file is removed again
+         String actual;
+         OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile), 64 * 1024);
+         try {
+            actual = Checksum.compute(algorithm, in, out);
+         } finally {
+            out.close();
+         }
+         if (!Checksum.matches(checksum, actual)) {
+            outFile.delete();
+            throw new IOException("Checksum mismatch: expected " + checksum + " but found " + actual);
+         }
+      } finally {
+         in.close();
+      }
    }
 
 
@@ -2076,61 +2380,67 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
          return MATCH_ERROR;
       }
 
-      if (type.equalsIgnoreCase("person")) {
-         return nameMatch(anObject.toString(), anotherObject.toString());
-      } else if (type.equalsIgnoreCase("text") || type.equalsIgnoreCase("string")) {
-         if (anObject.toString().equalsIgnoreCase(anotherObject.toString())) {
-            return MATCH_EXACT;
-         } else {
-            return MATCH_NO;
-         }
-      } else if (type.equalsIgnoreCase("int")) {
-         try {
-            if (((Integer) anObject).compareTo((Integer) anotherObject) == 0) {
+      OdmlType odmlType = OdmlType.resolve(type);
+      if (odmlType == null) {
+         return MATCH_ERROR;
+      }
+      switch (odmlType) {
+         case PERSON:
+            return nameMatch(anObject.toString(), anotherObject.toString());
+         case TEXT:
+         case STRING:
+            if (anObject.toString().equalsIgnoreCase(anotherObject.toString())) {
                return MATCH_EXACT;
-
             } else {
                return MATCH_NO;
             }
-         } catch (Exception e) {
-            logger.error("", e);
-            return MATCH_ERROR;
-         }
-      } else if (type.equalsIgnoreCase("float")) {
-         try {
-            if (((Float) anObject).compareTo((Float) anotherObject) == 0) {
-               return MATCH_EXACT;
-            } else {
-               return MATCH_NO;
+         case INT:
+            try {
+               if (((Integer) anObject).compareTo((Integer) anotherObject) == 0) {
+                  return MATCH_EXACT;
+               } else {
+                  return MATCH_NO;
+               }
+            } catch (Exception e) {
+               logger.error("", e);
+               return MATCH_ERROR;
             }
-         } catch (Exception e) {
-            logger.error("", e);
-            return MATCH_ERROR;
-         }
-      } else if (type.equalsIgnoreCase("date")) {
-         try {
-            if (((java.sql.Date) anObject).equals(anotherObject)) {
-               return MATCH_EXACT;
-            } else {
-               return MATCH_NO;
+         case FLOAT:
+            try {
+               if (((Float) anObject).compareTo((Float) anotherObject) == 0) {
+                  return MATCH_EXACT;
+               } else {
+                  return MATCH_NO;
+               }
+            } catch (Exception e) {
+               logger.error("", e);
+               return MATCH_ERROR;
             }
-         } catch (Exception e) {
-            logger.error("", e);
-            return MATCH_ERROR;
-         }
-      } else if (type.equalsIgnoreCase("time")) {
-         try {
-            if (((java.sql.Time) anObject).equals(anotherObject)) {
-               return MATCH_EXACT;
-            } else {
-               return MATCH_NO;
+         case DATE:
+            try {
+               if (((java.sql.Date) anObject).equals(anotherObject)) {
+                  return MATCH_EXACT;
+               } else {
+                  return MATCH_NO;
+               }
+            } catch (Exception e) {
+               logger.error("", e);
+               return MATCH_ERROR;
             }
-         } catch (Exception e) {
-            logger.error("", e);
+         case TIME:
+            try {
+               if (((java.sql.Time) anObject).equals(anotherObject)) {
+                  return MATCH_EXACT;
+               } else {
+                  return MATCH_NO;
+               }
+            } catch (Exception e) {
+               logger.error("", e);
+               return MATCH_ERROR;
+            }
+         default:
             return MATCH_ERROR;
-         }
       }
-      return MATCH_ERROR;
    }
 
 
@@ -2272,7 +2582,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
 
    @Override
    public Enumeration<Value> children() {
-      Enumeration<Value> voo = (this.values).elements();
+      Enumeration<Value> voo = unpacked().elements();
       return voo;
    }
 
@@ -2292,7 +2602,7 @@ public class Property extends Object implements Serializable, Cloneable, TreeNod
 
    @Override
    public int getChildCount() {
-      return this.values.size();
+      return valueCount();
    }
 
 
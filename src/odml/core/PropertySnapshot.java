@@ -0,0 +1,180 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.Serializable;
+import java.net.URL;
+import java.util.Date;
+
+/**
+ * A {@link PropertySnapshot} is the immutable form of a {@link Property} as it is stored in a {@link SectionSnapshot}.
+ * It keeps a private copy of the property and gives read-only access to it. Snapshots of unchanged properties are
+ * shared between the versions of a snapshot tree.
+ *
+ * @since 10.2026
+ */
+public final class PropertySnapshot implements Serializable {
+
+   private static final long serialVersionUID = 1L;
+   private final Property    property;
+
+
+   /**
+    * Creates the snapshot of a property. The property is copied, later changes to it do not affect the snapshot.
+    *
+    * @param property
+    *            {@link Property} the property.
+    */
+   PropertySnapshot(Property property) {
+      this.property = property.clone();
+   }
+
+
+   /**
+    * Returns the property name.
+    *
+    * @return {@link String} the name.
+    */
+   public String getName() {
+      return property.getName();
+   }
+
+
+   /**
+    * Returns the property definition.
+    *
+    * @return {@link String} the definition or an empty string.
+    */
+   public String getDefinition() {
+      return property.getDefinition();
+   }
+
+
+   /**
+    * Returns the name of the property this property depends on.
+    *
+    * @return {@link String} the dependency.
+    */
+   public String getDependency() {
+      return property.getDependency();
+   }
+
+
+   /**
+    * Returns the value the dependency property has to assume.
+    *
+    * @return {@link String} the dependency value.
+    */
+   public String getDependencyValue() {
+      return property.getDependencyValue();
+   }
+
+
+   /**
+    * Returns the mapping of the property.
+    *
+    * @return {@link URL} the mapping or null.
+    */
+   public URL getMapping() {
+      return property.getMapping();
+   }
+
+
+   /**
+    * Returns the data type of the values.
+    *
+    * @return {@link String} the type.
+    */
+   public String getType() {
+      return property.getType();
+   }
+
+
+   /**
+    * Returns the number of values.
+    *
+    * @return int the value count.
+    */
+   public int valueCount() {
+      return property.valueCount();
+   }
+
+
+   /**
+    * Returns the content of the value at the given index. Dates are returned as copies.
+    *
+    * @param index
+    *            int the value index.
+    * @return {@link Object} the content or null if the index is out of bounds.
+    */
+   public Object getValue(int index) {
+      Object content = property.getValue(index);
+      if (content instanceof Date) {
+         return ((Date) content).clone();
+      }
+      return content;
+   }
+
+
+   /**
+    * Returns the content of the value at the given index as text.
+    *
+    * @param index
+    *            int the value index.
+    * @return {@link String} the content as text.
+    */
+   public String getText(int index) {
+      return property.getText(index);
+   }
+
+
+   /**
+    * Returns the content of the value at the given index as a number.
+    *
+    * @param index
+    *            int the value index.
+    * @return double the content or Double.NaN if it cannot be converted.
+    */
+   public double getNumber(int index) {
+      return property.getNumber(index);
+   }
+
+
+   /**
+    * Returns the unit of the value at the given index.
+    *
+    * @param index
+    *            int the value index.
+    * @return {@link String} the unit.
+    */
+   public String getUnit(int index) {
+      return property.getUnit(index);
+   }
+
+
+   /**
+    * Creates a new, mutable {@link Property} from this snapshot.
+    *
+    * @return {@link Property} the property.
+    */
+   public Property toProperty() {
+      return property.clone();
+   }
+
+
+   @Override
+   public String toString() {
+      return property.toString();
+   }
+}
@@ -45,6 +45,9 @@ public class Reader implements Serializable {
    Vector<Section>               includes         = new Vector<Section>();
    private URL                   fileUrl;
    boolean                       isValid          = true, loadIncludes = false;
+   private boolean               lazy             = false;
+   private transient BlobStore   blobStore;
+   private boolean               verifyChecksums  = true;
    public static int             NO_CONVERSION    = 1, FULL_CONVERSION = 3, LOAD_AND_RESOLVE = 2,
          NO_VALIDATION = 4, VALIDATE = 5;
 
@@ -65,6 +68,68 @@ public class Reader implements Serializable {
    }
    
    
+   /**
+    * Sets whether values are read lazily. Lazy values keep the text of their content and convert it, e.g. to a number
+    * or date, only when the content is accessed. Unchanged values are written back with their original text. This
+    * suits jobs that load documents only to filter or re-write them. Lazily read properties are not packed into
+    * primitive arrays, since that would convert all their values.
+    * 
+    * @param lazy boolean true to read values lazily, default is false.
+    */
+   public void setLazy(boolean lazy) {
+      this.lazy = lazy;
+   }
+
+
+   /**
+    * @return boolean true if values are read lazily, see {@link #setLazy(boolean)}.
+    */
+   public boolean isLazy() {
+      return lazy;
+   }
+
+
+   /**
+    * Sets the store that takes up the content of binary values while reading. The values then only keep the key of
+    * their content and decode it from the store when it is accessed or written to disc, so that documents with large
+    * embedded files can be loaded with a small heap. Values written as references to a store, see
+    * {@link Writer#setBlobReferences(boolean)}, can only be read with that store. Use
+    * {@link MemoryBlobStore#getInstance()} to share equal contents between all documents read in the process.
+    * 
+    * @param blobStore {@link BlobStore}: the store, null to keep binary content in the values (the default).
+    */
+   public void setBlobStore(BlobStore blobStore) {
+      this.blobStore = blobStore;
+   }
+
+
+   /**
+    * @return {@link BlobStore} the store for binary content, see {@link #setBlobStore(BlobStore)}.
+    */
+   public BlobStore getBlobStore() {
+      return blobStore;
+   }
+
+
+   /**
+    * Sets whether the checksums of binary values are verified while reading. Mismatches are logged, the values are
+    * read anyway.
+    * 
+    * @param verifyChecksums boolean true to verify checksums, the default.
+    */
+   public void setVerifyChecksums(boolean verifyChecksums) {
+      this.verifyChecksums = verifyChecksums;
+   }
+
+
+   /**
+    * @return boolean true if the checksums of binary values are verified, see {@link #setVerifyChecksums(boolean)}.
+    */
+   public boolean isVerifyChecksums() {
+      return verifyChecksums;
+   }
+
+
    /**
     * Reads the odML document from the given InputStream and returns the root section of the odML tree.
     * This method does not load includes, does not resolve links and does not apply mapping information.
@@ -277,12 +342,10 @@ public class Reader implements Serializable {
       }
       root.setRepository(url);
       root.setFileUrl(this.fileUrl);
-      if (rootElement.getElementsByTagName("section").getLength() > 0) {
-         for (int i = 0; i < rootElement.getElementsByTagName("section").getLength(); i++) {
-            Element domSection = (Element) rootElement.getElementsByTagName("section").item(i);
-            if (domSection.getParentNode().isSameNode(rootElement)) {
-               root.add(parseSection(domSection));
-            }
+      NodeList kids = rootElement.getChildNodes();
+      for (int i = 0; i < kids.getLength(); i++) {
+         if (kids.item(i).getNodeName().equals("section")) {
+            root.add(parseSection((Element) kids.item(i)));
          }
       }
       confirmLinks(root);
@@ -362,14 +425,59 @@ public class Reader implements Serializable {
 
    /**
     * Parses a section of the metadata file and adds a new {@link PropertyTreeNode} to the parentNode. Properties are
-    * stored within the node's userObject as a {@link PropertyTableModel}. Subsections are parsed in a recursive
-    * manner.
+    * stored within the node's userObject as a {@link PropertyTableModel}. Subsections are parsed iteratively, in
+    * document order.
     * 
     * @param domSection
     *            - {@link Element}: the section that is to parse
     * @return {@link Section}: the Section representation of the dom section
     */
    private Section parseSection(Element domSection) {
+      Section section = createSection(domSection);
+      if (section == null) {
+         return null;
+      }
+      // subsections are parsed in document order with an explicit stack, deep trees would overflow the call stack.
+      ArrayDeque<Section> sections = new ArrayDeque<Section>();
+      ArrayDeque<NodeList> kids = new ArrayDeque<NodeList>();
+      ArrayDeque<int[]> next = new ArrayDeque<int[]>();
+      sections.push(section);
+      kids.push(domSection.getChildNodes());
+      next.push(new int[1]);
+      while (!sections.isEmpty()) {
+         NodeList nodes = kids.peek();
+         int[] index = next.peek();
+         while (index[0] < nodes.getLength() && !nodes.item(index[0]).getNodeName().equals("section")) {
+            index[0]++;
+         }
+         if (index[0] == nodes.getLength()) {
+            sections.pop();
+            kids.pop();
+            next.pop();
+            continue;
+         }
+         Element domSubsection = (Element) nodes.item(index[0]++);
+         Section subsection = createSection(domSubsection);
+         sections.peek().add(subsection);
+         logger.debug("Subsection added");
+         if (subsection != null) {
+            sections.push(subsection);
+            kids.push(domSubsection.getChildNodes());
+            next.push(new int[1]);
+         }
+      }
+      return section;
+   }
+
+
+   /**
+    * Creates the section from the dom section element including its properties but not its subsections.
+    * 
+    * @param domSection
+    *            - {@link Element}: the section that is to parse
+    * @return {@link Section}: the Section representation of the dom section or null if it could not be created
+    */
+   private Section createSection(Element domSection) {
       String type = getDirectChildContent(domSection, "type");
       String name = getDirectChildContent(domSection, "name");
       String reference = getDirectChildContent(domSection, "reference");
@@ -415,37 +523,11 @@ public class Reader implements Serializable {
          return null;
       }
 
-      NodeList properties = domSection.getElementsByTagName("property");
       NodeList kids = domSection.getChildNodes();
-      Property tempProp;
-      if (properties.getLength() < kids.getLength()) {
-         if (properties.getLength() > 0) {
-            for (int i = 0; i < properties.getLength(); i++) {
-               if (properties.item(i).getParentNode().isSameNode(domSection)) {
-                  tempProp = parseProperty((Element) properties.item(i));
-                  section.add(tempProp);
-                  logger.debug("Property added");
-               }
-            }
-         }
-      } else {
-         for (int i = 0; i < kids.getLength(); i++) {
-            if (kids.item(i).getNodeName().equals("property")) {
-               tempProp = parseProperty((Element) kids.item(i));
-               section.add(tempProp);
-               logger.debug("Property added");
-            }
-         }
-      }
-      // append subsections
-      NodeList sections = domSection.getElementsByTagName("section");
-      if (domSection.getElementsByTagName("section").getLength() > 0) {
-         for (int i = 0; i < sections.getLength(); i++) {
-            if (!sections.item(i).getParentNode().isSameNode(domSection)) {
-               continue;
-            }
-            section.add(parseSection((Element) sections.item(i)));
-            logger.debug("Subsection added");
+      for (int i = 0; i < kids.getLength(); i++) {
+         if (kids.item(i).getNodeName().equals("property")) {
+            section.add(parseProperty((Element) kids.item(i)));
+            logger.debug("Property added");
          }
       }
       return section;
@@ -504,6 +586,9 @@ public class Reader implements Serializable {
       Property property = null;
       try {
          property = new Property(name, tmpValues, definition, dependency, dependencyValue, mapURL);
+         if (!lazy) {
+            property.pack();
+         }
          return property;
       } catch (Exception e) {
          logger.error("odMLReader.parseProperty: create new prop failed. ", e);
@@ -568,7 +653,14 @@ public class Reader implements Serializable {
       }
       try {
          toReturn = new Value(content, unit, uncertainty, type, filename, definition, reference,
-               encoder, checksum);
+               encoder, checksum, lazy);
+         if (!toReturn.resolveBlob(blobStore) && blobStore != null) {
+            toReturn.store(blobStore);
+         }
+         if (verifyChecksums) {
+            // mismatches are logged, the value is kept
+            toReturn.verifyChecksum();
+         }
       } catch (Exception e) {
          logger.error("odMLReader.parseValue: create Value failed. ", e);
          return null;
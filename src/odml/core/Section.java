@@ -16,6 +16,9 @@ package odml.core;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.*;
 import javax.swing.*;
 import javax.swing.tree.*;
 import odml.util.TerminologyManager;
@@ -35,7 +38,7 @@ import org.slf4j.*;
  * 
  * @author Jan Grewe, Christine Seitz
  */
-public class Section extends Object implements Serializable, TreeNode {
+public class Section extends Object implements Serializable, Cloneable, TreeNode {
 
    static Logger             logger                     = LoggerFactory.getLogger(Section.class);
    private static final long serialVersionUID           = 145L;
@@ -53,6 +56,10 @@ public class Section extends Object implements Serializable, TreeNode {
    protected int             level;
    private boolean           isTerminology              = false;
    protected Vector<Section> subsections = new Vector<Section>();
+   private transient LinkIndex linkIndex                  = null;
+   private transient long    contentHash;
+   private transient boolean contentHashValid           = false;
+   transient TreeEvents      events                     = null;
 
 
    /**
@@ -250,27 +257,37 @@ public class Section extends Object implements Serializable, TreeNode {
     * warning
     * 
     */
-   private void validateSection() {
+   void validateSection() {
+      validateSection(null);
+   }
+
+
+   /**
+    * Same as {@link #validateSection()}, adding the issues to the report or logging them if the report is null.
+    */
+   void validateSection(ValidationReport report) {
       if (this.terminology == null)
          return;
       if (this.terminology.getDefinition() != null && (!this.terminology.getDefinition().isEmpty())) {
          if (this.getDefinition() == null || (this.getDefinition().isEmpty())) {
             this.setDefinition(this.terminology.getDefinition());
-            logger.info("Section definintion updated with terminology information!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.DEFINITION_ADDED, this,
+                  null, null, this.terminology.getDefinition(), null));
          } else if (!this.terminology.getDefinition().equalsIgnoreCase(this.getDefinition())) {
-            logger.warn("Section definition deviates from the definition in the terminology! "
-                  + "No changes applied. Please double check to avoid conflicts!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.DEFINITION_DEVIATES,
+                  this, null, null, this.terminology.getDefinition(), this.getDefinition()));
          }
       }
       if (this.terminology.getMapping() != null
             && (!this.terminology.getMapping().toString().isEmpty())) {
          if (this.getMapping() == null || (this.getMapping().toString().isEmpty())) {
             this.setMapping(this.terminology.getMapping());
-            logger.info("mappingURL set to one used in terminology");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.MAPPING_ADDED, this,
+                  null, null, this.terminology.getMapping(), null));
          } else if (!this.terminology.getMapping().toString().equalsIgnoreCase(
                this.getMapping().toString())) {
-            logger.warn("Section mapping different from the one specified in terminology! "
-                  + "No changes applied. Please double check to avoid conflicts!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.MAPPING_DEVIATES, this,
+                  null, null, this.terminology.getMapping(), this.getMapping()));
          }
       }
       if (this.terminology.getRepository() != null
@@ -278,7 +295,8 @@ public class Section extends Object implements Serializable, TreeNode {
          if (this.getRepository() == null
                || (this.getRepository().toString().isEmpty())) {
             this.setRepository(this.terminology.getRepository());
-            logger.info("Section repository information updated with terminology information!");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.REPOSITORY_ADDED, this,
+                  null, null, this.terminology.getRepository(), null));
          }
       }
    }
@@ -303,17 +321,96 @@ public class Section extends Object implements Serializable, TreeNode {
             .warn("There already exists a section with that name! Will append an index to the name!");
             section.setName(section.getName() + this.getSectionsByType(section.getType()).size());
          }
+         Section oldParent = section.parent;
+         if (oldParent == this || (oldParent != null && !detachFrom(oldParent, section))) {
+            oldParent = null;
+         }
          section.setParent(this);
          if (this.terminology != null) {
             validateSection();
          }
          subsections.add(section);
          index = subsections.size() - 1;
+         section.linkIndex = null;
+         invalidateLinkIndex();
+         invalidateContentHash();
+         if (oldParent != null) {
+            TreeEvents.fire(this, TreeEvent.Type.SECTION_MOVED, section, null, oldParent);
+         } else {
+            TreeEvents.fire(this, TreeEvent.Type.SECTION_ADDED, section, null, null);
+         }
       }
       return index;
    }
 
 
+   /**
+    * Appends a subsection without any checks and without updating levels or indices. Used by {@link SectionBuilder}
+    * which does these for the whole batch.
+    */
+   void append(Section section) {
+      Section oldParent = section.parent;
+      if (oldParent == this || (oldParent != null && !detachFrom(oldParent, section))) {
+         oldParent = null;
+      }
+      section.parent = this;
+      section.linkIndex = null;
+      subsections.add(section);
+      invalidateContentHash();
+      if (oldParent != null) {
+         TreeEvents.fire(this, TreeEvent.Type.SECTION_MOVED, section, null, oldParent);
+      } else {
+         TreeEvents.fire(this, TreeEvent.Type.SECTION_ADDED, section, null, null);
+      }
+   }
+
+
+   /**
+    * Removes a section that is moved to this section from its old parent. Moves within a tree are reported as
+    * SECTION_MOVED by the caller only; if the section comes from another tree, that tree is told of the removal.
+    *
+    * @return boolean false if the section is not a subsection of the old parent.
+    */
+   private boolean detachFrom(Section oldParent, Section section) {
+      if (!oldParent.detach(section)) {
+         return false;
+      }
+      if (oldParent.getRootSection() != getRootSection()) {
+         TreeEvents.fire(oldParent, TreeEvent.Type.SECTION_REMOVED, section, null, null);
+      }
+      return true;
+   }
+
+
+   /**
+    * Removes a subsection that is moved to another parent, without any event.
+    *
+    * @return boolean false if the section is not a subsection of this section.
+    */
+   private boolean detach(Section section) {
+      for (int i = 0; i < subsections.size(); i++) {
+         if (subsections.get(i) == section) {
+            subsections.removeElementAt(i);
+            invalidateLinkIndex();
+            invalidateContentHash();
+            return true;
+         }
+      }
+      return false;
+   }
+
+
+   /**
+    * Appends a property without any checks. Used by {@link SectionBuilder}.
+    */
+   void append(Property property) {
+      properties.add(property);
+      property.setParent(this);
+      invalidateContentHash();
+      TreeEvents.fire(this, TreeEvent.Type.PROPERTY_ADDED, null, property, null);
+   }
+
+
    /**
     * Returns the number of subsections.
     * 
@@ -423,6 +520,63 @@ public class Section extends Object implements Serializable, TreeNode {
    }
 
 
+   /**
+    * Returns a stream of the first level subsections.
+    * 
+    * @return {@link Stream} of {@link Section}s, may be empty.
+    */
+   public Stream<Section> sections() {
+      return subsections.stream();
+   }
+
+
+   /**
+    * Returns a stream of all subsections at any depth, in document order. The stream is lazy and splits by subtrees
+    * when it is processed in parallel. The tree must not be changed while the stream is processed.
+    * 
+    * @return {@link Stream} of {@link Section}s, may be empty.
+    */
+   public Stream<Section> descendants() {
+      return StreamSupport.stream(new SectionSpliterator(this, false), false);
+   }
+
+
+   /**
+    * Returns a stream of the properties stored in this section.
+    * 
+    * @return {@link Stream} of {@link Property}s, may be empty.
+    */
+   public Stream<Property> properties() {
+      return properties.stream();
+   }
+
+
+   /**
+    * Returns a stream of the values of all properties in this section and all its subsections, in document order.
+    * Like {@link #descendants()} the stream is lazy and splits by subtrees when it is processed in parallel.
+    * 
+    * @return {@link Stream} of the value contents, may be empty.
+    */
+   public Stream<Object> allValues() {
+      return StreamSupport.stream(new SectionSpliterator(this, true), false)
+            .flatMap(s -> s.properties.stream()).flatMap(Property::values);
+   }
+
+
+   /**
+    * Verifies the checksums of all binary values in this section and its descendants, see
+    * {@link Property#verifyValueChecksum(int)}. The subtrees are verified in parallel, the tree must not be changed
+    * meanwhile.
+    * 
+    * @return {@link Vector} of the {@link Property}s with at least one value that does not match its checksum, empty
+    *         if all match.
+    */
+   public Vector<Property> verifyChecksums() {
+      return StreamSupport.stream(new SectionSpliterator(this, true), true).flatMap(s -> s.properties.stream())
+            .filter(p -> !p.verifyValueChecksums()).collect(Collectors.toCollection(Vector::new));
+   }
+
+
    /**
     * Return a child section that matches the requested type. Method does not crawl through the rest of the tree. Use
     * FindSectionByType, instead.
@@ -456,10 +610,7 @@ public class Section extends Object implements Serializable, TreeNode {
    public Vector<Section> getSectionsByType(String type) {
       Vector<Section> temp = new Vector<Section>();
       for (int i = 0; i < subsections.size(); i++) {
-         String subsectionType = subsections.get(i).getType();
-         if (subsectionType.equalsIgnoreCase(type) || (subsectionType.contains("/") && 
-               subsectionType.substring(0, subsectionType.indexOf("/")).equalsIgnoreCase(
-                     type))) {
+         if (isOfType(subsections.get(i).getType(), type)) {
             temp.add(subsections.get(i));
          }
       }
@@ -467,6 +618,29 @@ public class Section extends Object implements Serializable, TreeNode {
    }
 
 
+   /**
+    * Folds the case of the name so that folded names are equal exactly if the names are equal ignoring case, as
+    * compared by {@link String#equalsIgnoreCase(String)}.
+    */
+   static String foldCase(String name) {
+      char[] chars = name.toCharArray();
+      for (int i = 0; i < chars.length; i++) {
+         chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+      }
+      return new String(chars);
+   }
+
+
+   /**
+    * Returns whether a section type matches the requested type, either directly or as its super-type (e.g.
+    * stimulus/white_noise is of type stimulus). Matching is case-insensitive.
+    */
+   private static boolean isOfType(String sectionType, String type) {
+      return sectionType.equalsIgnoreCase(type) || (sectionType.contains("/") &&
+            sectionType.substring(0, sectionType.indexOf("/")).equalsIgnoreCase(type));
+   }
+
+
    /**
     * findSection looks for a child section with the specified name. In contrast to getSection, findSection recursively
     * crawls down all subsection. Returns the first occurrence! If name is a path this method is equivalent to
@@ -476,19 +650,23 @@ public class Section extends Object implements Serializable, TreeNode {
     *            String the section name.
     * @return The found section or null.
     */
-   public Section findSection(String name) {
+   public Section findSection(final String name) {
       Section found = getSection(name);
-      if (found == null) {
-         for (int i = 0; i < sectionCount(); i++) {
-            Section temp = subsections.get(i).findSection(name);
-            if (temp != null) {
-               return temp;
-            }
-         }
-         return null;
-      } else {
+      if (found != null) {
          return found;
       }
+      final Section[] result = new Section[1];
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section != Section.this) {
+               result[0] = section.getSection(name);
+            }
+            return result[0] == null ? Result.CONTINUE : Result.TERMINATE;
+         }
+      });
+      return result[0];
    }
 
    /**
@@ -498,19 +676,17 @@ public class Section extends Object implements Serializable, TreeNode {
     *            {@link String} the type of the section.
     * @return {@link Section} the section or null;
     */
-   public Section findSectionByType(String type) {
-      Section found = getSectionByType(type);
-      if (found == null) {
-         for (int i = 0; i < sectionCount(); i++) {
-            Section temp = subsections.get(i).findSectionByType(type);
-            if (temp != null) {
-               return temp;
-            }
+   public Section findSectionByType(final String type) {
+      final Section[] result = new Section[1];
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            result[0] = section.getSectionByType(type);
+            return result[0] == null ? Result.CONTINUE : Result.TERMINATE;
          }
-         return null;
-      } else {
-         return found;
-      }
+      });
+      return result[0];
    }
 
 
@@ -521,11 +697,20 @@ public class Section extends Object implements Serializable, TreeNode {
     *            {@link String} the type of sections.
     * @return {@link Vector} of {@link Section}s, may be empty
     */
-   public Vector<Section> findSectionsByType(String type) {
-      Vector<Section> temp = getSectionsByType(type);
-      for (int i = 0; i < sectionCount(); i++) {
-         temp.addAll(subsections.get(i).findSectionsByType(type));
-      }
+   public Vector<Section> findSectionsByType(final String type) {
+      final Vector<Section> temp = new Vector<Section>();
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            for (int i = 0; i < section.subsections.size(); i++) {
+               if (isOfType(section.subsections.get(i).getType(), type)) {
+                  temp.add(section.subsections.get(i));
+               }
+            }
+            return Result.CONTINUE;
+         }
+      });
       return temp;
    }
 
@@ -610,7 +795,11 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public boolean removeSection(int index) {
       try {
-         subsections.removeElementAt(index);
+         Section removed = subsections.remove(index);
+         removed.parent = null;
+         invalidateLinkIndex();
+         invalidateContentHash();
+         TreeEvents.fire(this, TreeEvent.Type.SECTION_REMOVED, removed, null, null);
          return true;
       } catch (ArrayIndexOutOfBoundsException a) {
          logger.error("Invalid index! Index '" + index + "' exceeds the bounds of Section array.");
@@ -627,7 +816,12 @@ public class Section extends Object implements Serializable, TreeNode {
     * @return {@link Boolean} true if operation succeeded. False otherwise.
     */
    public boolean removeSection(Section section) {
-      return subsections.remove(section);
+      for (int i = 0; i < subsections.size(); i++) {
+         if (subsections.get(i) == section) {
+            return removeSection(i);
+         }
+      }
+      return false;
    }
 
 
@@ -646,7 +840,7 @@ public class Section extends Object implements Serializable, TreeNode {
       else{
          int index = indexOfSection(name);
          if(index > 0)
-            this.subsections.remove(index);
+            removeSection(index);
          else{
             logger.error("Section.removeSection(): Cannot remove section ("+name+")!");
             return false;
@@ -660,17 +854,15 @@ public class Section extends Object implements Serializable, TreeNode {
     * Updates the level of the according section and all it's subsections. Called when calling addSection(), as a
     * Section can become subsection of another one when merging two files, etc.
     */
-   private void updateLevel() {
-      if (this.getParent() == null) {
-         this.level = 0;
-      } else {
-         this.level = this.getParent().getLevel() + 1;
-      }
-      if (this.subsections != null) {
-         for (int i = 0; i < this.sectionCount(); i++) {
-            this.getSection(i).updateLevel();
+   void updateLevel() {
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            section.level = section.getParent() == null ? 0 : section.getParent().level + 1;
+            return Result.CONTINUE;
          }
-      }
+      });
    }
 
 
@@ -691,6 +883,7 @@ public class Section extends Object implements Serializable, TreeNode {
          return false;
       }
       this.type = type;
+      changed();
       return true;
    }
 
@@ -718,7 +911,13 @@ public class Section extends Object implements Serializable, TreeNode {
          return false;
       }
 
+      String oldName = this.name;
       this.name = name;
+      invalidateLinkIndex();
+      invalidateContentHash();
+      if (oldName != null && !oldName.equals(name)) {
+         TreeEvents.fire(this, TreeEvent.Type.SECTION_RENAMED, this, null, oldName);
+      }
       return true;
    }
 
@@ -731,6 +930,7 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public void setReference(String reference) {
       this.reference = reference;
+      changed();
    }
 
 
@@ -752,6 +952,7 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public void setDefinition(String definition) {
       this.definition = definition;
+      changed();
    }
 
 
@@ -780,11 +981,13 @@ public class Section extends Object implements Serializable, TreeNode {
          this.repositoryURL = null;
          logger.error("An error occurred when setting the repository: ", e);
       }
+      changed();
    }
 
 
    public void setRepository(URL url) {
       this.repositoryURL = url;
+      changed();
    }
 
 
@@ -837,20 +1040,58 @@ public class Section extends Object implements Serializable, TreeNode {
     * @return {@link Vector} of {@link Section} the referring sections. May be empty!
     */
    public Vector<Section> getLinkingSections() {
-      Vector<Section> temp = new Vector<Section>();
-      Section root = this.getRootSection();
-      Vector<Section> candidates = root.findSectionsByType(this.type);
-      for (int i = 0; i < candidates.size(); i++) {
-         if (candidates.get(i).isLinked()) {
-            if (candidates.get(i).getLinkedSection().equals(this)) {
-               temp.add(candidates.get(i));
-            }
+      return getLinkingSections(getRootSection().getLinkIndex());
+   }
+
+
+   private Vector<Section> getLinkingSections(LinkIndex index) {
+      Vector<Section> temp = index.getLinkingSections(this);
+      for (int i = temp.size() - 1; i >= 0; i--) {
+         if (!isOfType(temp.get(i).getType(), this.type)) {
+            temp.remove(i);
          }
       }
       return temp;
    }
 
 
+   /**
+    * Returns the reverse link index of the tree. Must be called on the root section. The index is built on the first
+    * request and kept until the tree structure changes.
+    * 
+    * @return {@link LinkIndex} the index.
+    */
+   LinkIndex getLinkIndex() {
+      if (linkIndex == null) {
+         linkIndex = new LinkIndex(this);
+      }
+      return linkIndex;
+   }
+
+
+   /**
+    * Drops the link index of the tree this section belongs to. Called whenever sections are added, removed or
+    * renamed, since any of these may change the sections a link path resolves to.
+    */
+   void invalidateLinkIndex() {
+      getRootSection().linkIndex = null;
+   }
+
+
+   /**
+    * Updates the link index of the tree, if one exists, after the link of this section has changed.
+    */
+   private void updateLinkIndex() {
+      if (this.parent == null) {
+         return;
+      }
+      LinkIndex index = getRootSection().linkIndex;
+      if (index != null) {
+         index.put(this, isLinked() ? getLinkedSection() : null);
+      }
+   }
+
+
    /**
     * Returns whether this section is linked to another one.
     * 
@@ -901,10 +1142,14 @@ public class Section extends Object implements Serializable, TreeNode {
     * Cycles through all subsections and resolves all links. Uses resolveLink() recursively. Call it on
     */
    public void resolveAllLinks() {
-      for (int i = 0; i < sectionCount(); i++) {
-         getSection(i).resolveAllLinks();
-      }
-      this.resolveLink();
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result postVisit(Section section) {
+            section.resolveLink();
+            return Result.CONTINUE;
+         }
+      });
    }
 
 
@@ -926,7 +1171,7 @@ public class Section extends Object implements Serializable, TreeNode {
       }
       int index = indexOfProperty(property.getName());
       if (index > -1) {
-         if (properties.get(index).equals(property)) {
+         if (properties.get(index) == property) {
             logger.error("! nothing added as identical property already existing"
                   + "\n\tproperty details: "
                   + property.toString());
@@ -937,6 +1182,8 @@ public class Section extends Object implements Serializable, TreeNode {
       } else {
          properties.add(property);
          property.setParent(this);
+         invalidateContentHash();
+         TreeEvents.fire(this, TreeEvent.Type.PROPERTY_ADDED, null, property, null);
       }
       // override section name when "name" property is added
       if (property.getName().equalsIgnoreCase("name")) {
@@ -1050,7 +1297,9 @@ public class Section extends Object implements Serializable, TreeNode {
       if (properties.size() < index || index < 0) {
          return false;
       } else {
-         properties.removeElementAt(index);
+         Property removed = properties.remove(index);
+         invalidateContentHash();
+         TreeEvents.fire(this, TreeEvent.Type.PROPERTY_REMOVED, null, removed, null);
       }
       return true;
    }
@@ -1287,6 +1536,27 @@ public class Section extends Object implements Serializable, TreeNode {
    }
 
 
+   /**
+    * Returns the terminology section this section has been validated against, null if none has been found yet.
+    */
+   Section getTerminology() {
+      return terminology;
+   }
+
+
+   void setTerminology(Section terminology) {
+      this.terminology = terminology;
+   }
+
+
+   /**
+    * Returns the repository set for this section itself, i.e. without looking at its ancestors.
+    */
+   URL getOwnRepository() {
+      return repositoryURL;
+   }
+
+
    /**
     * indicates whether a terminology is set or not
     * 
@@ -1336,62 +1606,190 @@ public class Section extends Object implements Serializable, TreeNode {
     * 
     */
    public void merge(Section otherSection, int mergeOption) {
+      merge(otherSection, mergeOption, false);
+   }
+
+
+   /**
+    * Merges the other section into this one, see {@link #merge(Section, int)}. Properties and subsections are matched
+    * by hashing their names (and types). If move is true, the properties and subsections of the other section that have
+    * no counterpart in this section are moved instead of copied, i.e. they are removed from the other section which
+    * should not be used any more afterwards.
+    * 
+    * @param otherSection
+    *            {@link Section} the other section which shall be merged with this section.
+    * @param mergeOption
+    *            {@link Integer} the way merging is done.
+    * @param move
+    *            boolean whether unmatched entries are moved from the other section rather than copied.
+    */
+   public void merge(Section otherSection, int mergeOption, boolean move) {
+      ArrayDeque<Section[]> pending = new ArrayDeque<Section[]>();
+      pending.add(new Section[] { this, otherSection });
+      while (!pending.isEmpty()) {
+         Section[] pair = pending.poll();
+         pending.addAll(pair[0].mergeSection(pair[1], mergeOption, move));
+      }
+   }
+
+
+   /**
+    * Same as {@link #merge(Section, int, boolean)} but the matching subsections are merged concurrently. The
+    * subsections of both trees must not be accessed by other threads while merging.
+    * 
+    * @param otherSection
+    *            {@link Section} the other section which shall be merged with this section.
+    * @param mergeOption
+    *            {@link Integer} the way merging is done.
+    * @param move
+    *            boolean whether unmatched entries are moved from the other section rather than copied.
+    */
+   public void mergeParallel(Section otherSection, int mergeOption, boolean move) {
+      // changes are delivered once and not from the worker threads
+      Section root = getRootSection();
+      Section otherRoot = otherSection == null ? root : otherSection.getRootSection();
+      root.beginBatch();
+      if (otherRoot != root) {
+         otherRoot.beginBatch();
+      }
+      try {
+         ForkJoinPool.commonPool().invoke(new MergeTask(this, otherSection, mergeOption, move, 0));
+      } finally {
+         if (otherRoot != root) {
+            otherRoot.endBatch();
+         }
+         root.endBatch();
+      }
+   }
+
+
+   /**
+    * Three-way merge of two versions of a tree that were derived from the same base version. Changes that were made in
+    * only one of the versions are taken over, changes made in both versions are conflicts. Conflicts are resolved
+    * according to the policy:
+    * <ol>
+    * <li>MERGE_THIS_OVERRIDES_OTHER: the own version (mine) is kept.</li>
+    * <li>MERGE_OTHER_OVERRIDES_THIS: the other version (theirs) is taken.</li>
+    * <li>MERGE_COMBINE: conflicting properties are merged, definitions are combined, otherwise the own version is
+    * kept.</li>
+    * </ol>
+    * Subsections are identified by name and type, properties by name. A renamed section thus appears as deleted and
+    * added. The versions passed are not changed, the merge runs in time linear to the size of the trees.
+    * 
+    * @param base
+    *            {@link Section} the common base version, may be null if there is none.
+    * @param mine
+    *            {@link Section} the own version.
+    * @param theirs
+    *            {@link Section} the other version.
+    * @param policy
+    *            int how conflicts are resolved.
+    * @return {@link MergeResult} the merged tree and the list of conflicts, or null if the arguments are invalid.
+    */
+   public static MergeResult merge3(Section base, Section mine, Section theirs, int policy) {
+      if (mine == null || theirs == null) {
+         logger.error("Section.merge3 error: mine and theirs must not be null!");
+         return null;
+      }
+      if (policy < 0 || policy > MERGE_COMBINE) {
+         logger.error("Section.merge3 error: invalid policy!");
+         return null;
+      }
+      return ThreeWayMerge.merge(base, mine, theirs, policy);
+   }
+
+
+   /**
+    * Merges the properties, the unmatched subsections and the information of the other section into this one.
+    * 
+    * @return {@link Vector} of the pairs of matching subsections that still need to be merged.
+    */
+   private Vector<Section[]> mergeSection(Section otherSection, int mergeOption, boolean move) {
+      Vector<Section[]> matches = new Vector<Section[]>();
       if (otherSection == null) {
-         return;
+         return matches;
       }
       if (mergeOption < 0 || mergeOption > MERGE_COMBINE) {
          logger.error("Section.merge error: invalid mergeOption!");
-         return;
+         return matches;
       }
       if (!this.type.equalsIgnoreCase(otherSection.getType())) {
          logger.error("Section.merge error: cannot merge sections of differnt types!");
-         return;
+         return matches;
       }
       if ((this.getRepository() != null && otherSection.getRepository() != null)
             && !this.getRepository().sameFile(otherSection.getRepository())) {
          logger
          .error("Section.merge error: cannot merge sections based on different terminologies!");
-         return;
+         return matches;
       }
       if ((this.getMapping() != null && otherSection.getMapping() != null)
             && !this.mapping.sameFile(otherSection.getMapping())) {
          logger.error("Section.merge error: cannot merge sections mapping to different sections!");
-         return;
+         return matches;
       }
+      HashMap<String, Integer> propertyIndex = new HashMap<String, Integer>();
+      for (int i = properties.size() - 1; i >= 0; i--) {
+         propertyIndex.put(foldCase(properties.get(i).getName()), i);
+      }
+      Vector<Property> retainedProperties = new Vector<Property>();
       for (int i = 0; i < otherSection.propertyCount(); i++) {
-         Property temp = null;
-         try {
-            temp = otherSection.getProperty(i).copy();
-         } catch (Exception e) {
-            logger.error("", e);
-         }
-         if (temp == null) {
-            logger.error("Section.merge error: cloning Property failed.");
+         Property other = otherSection.getProperty(i);
+         Integer index = propertyIndex.get(foldCase(other.getName()));
+         if (index != null) {
+            this.getProperty(index).merge(other, mergeOption);
+            retainedProperties.add(other);
             continue;
          }
-         int index = this.contains(temp);
-         if (index != -1) {
-            this.getProperty(index).merge(temp, mergeOption);
-         } else {
+         Property temp = move ? other : other.clone();
+         if (temp.getName().equalsIgnoreCase("name")) {
             this.add(temp);
+         } else {
+            this.append(temp);
          }
+         propertyIndex.put(foldCase(temp.getName()), properties.size() - 1);
       }
+      HashMap<String, Integer> sectionIndex = new HashMap<String, Integer>();
+      for (int i = subsections.size() - 1; i >= 0; i--) {
+         sectionIndex.put(mergeKey(subsections.get(i)), i);
+      }
+      Vector<Section> retainedSections = new Vector<Section>();
+      boolean added = false, moved = false;
       for (int i = 0; i < otherSection.sectionCount(); i++) {
-         Section temp = null;
-         try {
-            temp = otherSection.getSection(i).copy();
-         } catch (Exception e) {
-            logger.error("Copying 'otherSection' failed!", e);
-         }
-         if (temp == null) {
-            logger.error("Section.merge error: cloning section failed.");
+         Section other = otherSection.getSection(i);
+         Integer index = sectionIndex.get(mergeKey(other));
+         if (index != null) {
+            matches.add(new Section[] { this.getSection(index), other });
+            retainedSections.add(other);
             continue;
          }
-         int index = this.indexOfSection(temp);
-         if (index == -1) {
-            this.add(temp);
+         if (move) {
+            this.append(other);
+            other.updateLevel();
+            other.invalidateSubtreeContentHash();
+            moved = true;
          } else {
-            this.getSection(index).merge(temp, mergeOption);
+            Section copy = other.clone(this, true);
+            subsections.add(copy);
+            invalidateContentHash();
+            TreeEvents.fire(this, TreeEvent.Type.SECTION_ADDED, copy, null, null);
+         }
+         sectionIndex.put(mergeKey(other), subsections.size() - 1);
+         added = true;
+      }
+      if (move) {
+         otherSection.properties = retainedProperties;
+         otherSection.subsections = retainedSections;
+         otherSection.invalidateContentHash();
+         if (moved) {
+            // the links of the moved sections are no longer part of the other tree
+            otherSection.invalidateLinkIndex();
+         }
+      }
+      if (added) {
+         invalidateLinkIndex();
+         if (this.terminology != null) {
+            validateSection();
          }
       }
       // terminologyURL
@@ -1420,6 +1818,49 @@ public class Section extends Object implements Serializable, TreeNode {
             this.setRepository(otherSection.getRepository());
          }
       }
+      return matches;
+   }
+
+
+   private static String mergeKey(Section section) {
+      return foldCase(section.getName()) + "\u0000" + foldCase(section.getType());
+   }
+
+
+   /**
+    * Merges a pair of sections and forks the merging of their matching subsections.
+    */
+   private static class MergeTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+      private static final int  FORK_DEPTH       = 12;
+      private final Section     section, otherSection;
+      private final int         mergeOption, depth;
+      private final boolean     move;
+
+
+      MergeTask(Section section, Section otherSection, int mergeOption, boolean move, int depth) {
+         this.section = section;
+         this.otherSection = otherSection;
+         this.mergeOption = mergeOption;
+         this.move = move;
+         this.depth = depth;
+      }
+
+
+      @Override
+      protected void compute() {
+         if (depth >= FORK_DEPTH) {
+            section.merge(otherSection, mergeOption, move);
+            return;
+         }
+         Vector<Section[]> matches = section.mergeSection(otherSection, mergeOption, move);
+         MergeTask[] tasks = new MergeTask[matches.size()];
+         for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new MergeTask(matches.get(i)[0], matches.get(i)[1], mergeOption, move, depth + 1);
+         }
+         invokeAll(tasks);
+      }
    }
 
 
@@ -1569,29 +2010,270 @@ public class Section extends Object implements Serializable, TreeNode {
 
 
    /**
-    * Creates a copy of this section via serialization. This copy is an exact doublet
+    * Creates a copy of this section. This copy is an exact doublet. Equivalent to clone(), the exceptions are only
+    * declared for compatibility and are no longer thrown.
     * 
     * @return Section: returns an exact copy of the section
     * @throws IOException
     * @throws ClassNotFoundException
     */
    public Section copy() throws IOException, ClassNotFoundException {
-      File tempFile = File.createTempFile("section", ".ser");
-      tempFile.deleteOnExit();
-      ObjectOutputStream objOut = new ObjectOutputStream(new BufferedOutputStream(
-            new FileOutputStream(tempFile)));
-      objOut.writeObject(this);
-      objOut.close();
-
-      ObjectInputStream objIn = new ObjectInputStream(new BufferedInputStream(new FileInputStream(
-            tempFile)));
-      Section copy = (Section) objIn.readObject();
-      objIn.close();
-      copy.setParent(null);
+      return clone();
+   }
+
+
+   /**
+    * Creates an in-memory deep copy of this section, its properties and all its subsections. The copy is detached
+    * from the tree, i.e. it has no parent. The terminology, if set, is shared with the original.
+    * 
+    * @return {@link Section} the copy.
+    */
+   @Override
+   public Section clone() {
+      return clone(true);
+   }
+
+
+   /**
+    * Creates an in-memory copy of this section. The copy is detached from the tree, i.e. it has no parent.
+    * 
+    * @param recursive
+    *            boolean: if true the subsections are copied as well. Otherwise only the information and the properties
+    *            of this section are copied and the copy has no subsections.
+    * @return {@link Section} the copy.
+    */
+   public Section clone(boolean recursive) {
+      return clone(null, recursive);
+   }
+
+
+   /**
+    * Copies the subtree level by level with an explicit stack, so that deep trees do not overflow the call stack.
+    */
+   private Section clone(Section parent, boolean recursive) {
+      Section copy = copyNode(parent, recursive);
+      if (!recursive) {
+         return copy;
+      }
+      ArrayDeque<Section[]> stack = new ArrayDeque<Section[]>();
+      stack.push(new Section[] { this, copy });
+      while (!stack.isEmpty()) {
+         Section[] pair = stack.pop();
+         Vector<Section> kids = pair[0].subsections;
+         pair[1].subsections.ensureCapacity(kids.size());
+         for (int i = 0; i < kids.size(); i++) {
+            Section kid = kids.get(i).copyNode(pair[1], true);
+            pair[1].subsections.add(kid);
+            stack.push(new Section[] { kids.get(i), kid });
+         }
+      }
       return copy;
    }
 
 
+   /**
+    * Copies the information and the properties of this section, the copy has no subsections yet.
+    */
+   private Section copyNode(Section parent, boolean recursive) {
+      Section copy = null;
+      try {
+         copy = (Section) super.clone();
+      } catch (CloneNotSupportedException e) {
+         throw new InternalError(e.toString());
+      }
+      copy.parent = parent;
+      copy.level = parent == null ? 0 : parent.level + 1;
+      copy.linkIndex = null;
+      copy.contentHashValid = contentHashValid && recursive;
+      copy.events = null;
+      if (date != null) {
+         copy.date = (Date) date.clone();
+      }
+      copy.properties = new Vector<Property>(properties.size());
+      for (int i = 0; i < properties.size(); i++) {
+         Property p = properties.get(i).clone();
+         p.setParent(copy);
+         copy.properties.add(p);
+      }
+      copy.subsections = new Vector<Section>();
+      return copy;
+   }
+
+
+   /**
+    * Returns a 64 bit hash of the content of this subtree, i.e. of the information, the properties and values of this
+    * section and the names and content hashes of all its subsections. The own name of the section is not part of the
+    * hash, so renamed subtrees keep their hash. Sections with equal content always have equal hashes, sections with
+    * different content have different hashes with a very high probability.
+    * <p>
+    * The hash is cached and only recomputed for the sections that changed since the last call. Changes made through
+    * the methods of {@link Section}, {@link Property} and {@link Value} are tracked; changes made directly to the
+    * vector returned by {@link #getProperties()} are not.
+    * 
+    * @return long the content hash.
+    */
+   public long getContentHash() {
+      if (!contentHashValid) {
+         accept(new SectionVisitor() {
+
+            @Override
+            public Result preVisit(Section section) {
+               return section.contentHashValid ? Result.SKIP_SUBTREE : Result.CONTINUE;
+            }
+
+
+            @Override
+            public Result postVisit(Section section) {
+               long[] hashes = new long[section.subsections.size()];
+               for (int i = 0; i < hashes.length; i++) {
+                  hashes[i] = section.subsections.get(i).contentHash;
+               }
+               section.contentHash = ContentHash.of(section, hashes);
+               section.contentHashValid = true;
+               return Result.CONTINUE;
+            }
+         });
+      }
+      return contentHash;
+   }
+
+
+   /**
+    * Marks the content hash of this section and of all its ancestors as outdated. A valid hash implies valid hashes of
+    * all subsections, so the walk stops at the first section that is already outdated.
+    */
+   void invalidateContentHash() {
+      for (Section s = this; s != null && s.contentHashValid; s = s.parent) {
+         s.contentHashValid = false;
+      }
+   }
+
+
+   /**
+    * Drops the cached content hashes of this whole subtree and of its ancestors, e.g. after it was moved to another
+    * tree.
+    */
+   void invalidateSubtreeContentHash() {
+      invalidateContentHash();
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            section.contentHashValid = false;
+            return Result.CONTINUE;
+         }
+      });
+   }
+
+
+   /**
+    * Called after the information of this section changed.
+    */
+   private void changed() {
+      invalidateContentHash();
+      TreeEvents.fire(this, TreeEvent.Type.SECTION_CHANGED, this, null, null);
+   }
+
+
+   /**
+    * Registers a listener that is notified about all changes of this section and of its subtree. Changes are only
+    * reported if they are made through the methods of {@link Section}, {@link Property} and {@link Value}.
+    * 
+    * @param listener
+    *            {@link TreeListener} the listener.
+    * @return boolean false if the listener is null or already registered.
+    */
+   public boolean addTreeListener(TreeListener listener) {
+      if (listener == null) {
+         logger.error("Section.addTreeListener: listener must not be null!");
+         return false;
+      }
+      if (events == null) {
+         events = new TreeEvents();
+      }
+      return events.addListener(listener);
+   }
+
+
+   /**
+    * Unregisters a listener.
+    * 
+    * @param listener
+    *            {@link TreeListener} the listener.
+    * @return boolean false if the listener was not registered with this section.
+    */
+   public boolean removeTreeListener(TreeListener listener) {
+      if (events == null || !events.removeListener(listener)) {
+         return false;
+      }
+      if (events.isEmpty()) {
+         events = null;
+      }
+      return true;
+   }
+
+
+   /**
+    * Starts a batch of changes. Until the matching {@link #endBatch()}, changes of this subtree are collected and then
+    * delivered with a single call per listener. Batches may be nested.
+    */
+   public void beginBatch() {
+      if (events == null) {
+         events = new TreeEvents();
+      }
+      events.beginBatch();
+   }
+
+
+   /**
+    * Ends a batch started with {@link #beginBatch()} and delivers the collected changes once the outermost batch ends.
+    * 
+    * @return boolean false if no batch was open.
+    */
+   public boolean endBatch() {
+      if (events == null || !events.endBatch()) {
+         logger.error("Section.endBatch: no batch was started!");
+         return false;
+      }
+      if (events.isEmpty()) {
+         events = null;
+      }
+      return true;
+   }
+
+
+   /**
+    * Returns whether the other section has the same name and the same content, see {@link #getContentHash()}.
+    * Sections with different content hashes are told apart without comparing their subtrees. Unlike
+    * {@link #equals(Object)}, which compares identity, this does not depend on where the sections are in their trees.
+    * 
+    * @param other
+    *            {@link Section} the other section.
+    * @return boolean true if the sections have equal names and content.
+    */
+   public boolean contentEquals(Section other) {
+      if (this == other) {
+         return true;
+      }
+      if (other == null) {
+         return false;
+      }
+      return ContentHash.equal(name, other.name) && getContentHash() == other.getContentHash()
+            && ContentHash.equal(this, other);
+   }
+
+
+   /**
+    * Takes an immutable snapshot of this section, its properties and all its subsections. Later changes to this
+    * section do not affect the snapshot. See {@link SectionSnapshot} for deriving new versions from it.
+    *
+    * @return {@link SectionSnapshot} the snapshot.
+    */
+   public SectionSnapshot snapshot() {
+      return new SectionSnapshot(this);
+   }
+
+
    /**
     * Sets the mapping to the given one.
     * 
@@ -1601,6 +2283,7 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public void setMapping(URL mapping) {
       this.mapping = mapping;
+      changed();
    }
 
 
@@ -1626,6 +2309,7 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public void removeMapping() {
       this.mapping = null;
+      changed();
    }
 
 
@@ -1659,62 +2343,74 @@ public class Section extends Object implements Serializable, TreeNode {
 
 
    /**
-    * Validate the whole metadata tree against the terminologies.
+    * Validate the whole metadata tree against the terminologies. All sections at all levels are validated, independent
+    * sections in parallel. Terminologies are loaded once per repository and type. The issues found are logged.
     */
    public void validateTree() {
       logger.info("Starting validation ...");
-      getRootSection().validateRecursively();
+      new TreeValidator(getRootSection()).validate(null);
    }
 
 
-   private void validateRecursively() {
-      this.validate();
-      for (int i = 0; i < sectionCount(); i++) {
-         getSection(i).validate();
+   /**
+    * Validates the whole metadata tree like {@link #validateTree()} and collects the issues in the report instead of
+    * logging them. The validation stops early if the report is full or fail-fast.
+    * 
+    * @param report
+    *            {@link ValidationReport} the report that receives the issues.
+    * @return {@link ValidationReport} the report.
+    */
+   public ValidationReport validateTree(ValidationReport report) {
+      if (report == null) {
+         report = new ValidationReport();
       }
+      new TreeValidator(getRootSection()).validate(report);
+      return report;
    }
 
 
    /**
     * Validates this section against the related terminology. Tests all Properties but 
-    * does not cycle through its subsections!
+    * does not cycle through its subsections! The issues found are logged.
     * 
     */
    public void validate() {
-      logger.info("Validating section " + this.getPath()
-            + " against terminology located in repository "
-            + findRepositoryURL().toString());
-      findTerminology();
-      if (terminology != null) {
-         validateSection();
-         for (int i = 0; i < propertyCount(); i++) {
-            Property termProp = terminology.getProperty(getProperty(i).getName());
-            if (termProp != null) {
-               getProperty(i).validate(termProp);
-            }
-         }
-      }
+      validate(null);
    }
 
 
    /**
-    * Finds a terminology for this section to perform validity checks. 
-    * If there is no terminology already stored, it tries to load it from 
-    * the repository.
+    * Validates this section like {@link #validate()}, adding the issues to the report.
     * 
-    * @return {@link Boolean} true, if a terminology is present, false otherwise.
+    * @param report
+    *            {@link ValidationReport} the report, null to log the issues.
+    * @return boolean true if a terminology was found and the section was validated.
     */
-   private boolean findTerminology() {
-      boolean success = true;
+   public boolean validate(ValidationReport report) {
+      if (logger.isDebugEnabled()) {
+         logger.debug("Validating section " + this.getPath()
+               + " against terminology located in repository "
+               + findRepositoryURL());
+      }
       if (terminology == null && findRepositoryURL() != null) {
          terminology = TerminologyManager.instance().loadTerminology(getRepository(), this.type);
       }
-      if (this.terminology == null) {
-         logger.warn("Validation of section: " + this.getPath()
-               + " aborted! Could not locate a terminology equivalent!");
-         success = false;
+      if (terminology == null) {
+         ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.NO_TERMINOLOGY, this,
+               null, null, null, this.type));
+         return false;
+      }
+      validateSection(report);
+      for (int i = 0; i < propertyCount(); i++) {
+         if (report != null && report.isStopped()) {
+            break;
+         }
+         Property termProp = terminology.getProperty(getProperty(i).getName());
+         if (termProp != null) {
+            getProperty(i).validate(termProp, report);
+         }
       }
-      return success;
+      return true;
    }
 
 
@@ -1722,70 +2418,17 @@ public class Section extends Object implements Serializable, TreeNode {
     * This method scans the tree and optimizes the tree.
     * Empty Properties are removed. It optimizes linked sections in the sense 
     * that local sections are simplified that they only contain information that deviates from the 
-    * global description. 
+    * global description. Empty sections are removed at all levels, unless they are linked or include content.
     * 
-    * This method recursively cycles through the whole tree starting at the RootSection. 
+    * The whole tree starting at the RootSection is optimized in time linear in its size, independent subtrees are
+    * processed in parallel. Listeners receive the changes as one batch.
     */
    public void optimizeTree() {
-      Section root = getRootSection();
-      for (int i = 0; i < root.sectionCount(); i++) {
-         root.getSection(i).optimize();
-      }
+      new TreeOptimizer(getRootSection()).optimize();
       logger.info("optimization done");
    }
 
 
-   /**
-    * Optimizes only this section. Method removes empty properties Optimization is only done if this section is linked and all referring sections have been
-    * optimized before.
-    */
-   private void optimize() {
-      Vector<Section> ref = this.getLinkingSections();
-      for (int i = 0; i < ref.size(); i++) {
-         ref.get(i).optimize();
-      }
-      if (this.isLinked()) {
-         compareToLink();
-      }
-      removeEmptyProperties();
-      removeEmptySections();
-   }
-
-
-   /**
-    * Removes those Properties that have not value in them. If this section isTerminology 
-    * nothing will be removed.
-    * 
-    */
-   private void removeEmptyProperties() {
-      if (this.isTerminology) {
-         return;
-      }
-      for (int i = propertyCount() - 1; i >= 0; i--) {
-         this.getProperty(i).removeEmptyValues();
-         if (this.getProperty(i).isEmpty()) {
-            this.removeProperty(i);
-         }
-      }
-   }
-
-
-   /**
-    * Removes empty subsections from this {@link Section}. Does not do anything if this section is 
-    * set to be a terminology.
-    */
-   private void removeEmptySections() {
-      if (this.isTerminology) {
-         return;
-      }
-      for (int i = sectionCount() - 1; i >= 0; i--) {
-         getSection(i).removeEmptyProperties();
-         if (getSection(i).isEmpty())
-            this.removeSection(i);
-      }
-   }
-
-
    /**
     * Returns whether a {@link Section} is empty in the sense that it does not contain any properties or sections.
     * @return boolean true if there are no subsections and no properties, false otherwise.
@@ -1795,32 +2438,6 @@ public class Section extends Object implements Serializable, TreeNode {
    }
 
 
-   /**
-    * Compares this section to the linked section, removes redundancy and clears empty sections...
-    */
-   private void compareToLink() {
-      Section linkSection = this.getLinkedSection();
-      for (int i = propertyCount() - 1; i >= 0; i--) {
-         Property mine = this.getProperty(i);
-         Property his = linkSection.getProperty(mine.getName());
-         if (his != null) {
-            for (int j = mine.valueCount() - 1; j >= 0; j--) {
-               for (int k = 0; k < his.valueCount(); k++) {
-                  if (!mine.getWholeValue(j).isEmpty() && !his.getWholeValue(k).isEmpty()) {
-                     if (mine.getValue(j).toString().equalsIgnoreCase(his.getValue(k).toString())) {
-                        mine.removeValue(j);
-                     }
-                  }
-               }
-            }
-         }
-         if (mine.valueCount() == 0) {
-            this.removeProperty(i);
-         }
-      }
-   }
-
-
    /**
     * Returns a String representation of this section. I.e the fact that it is a section and it's name.
     */
@@ -1974,14 +2591,14 @@ public class Section extends Object implements Serializable, TreeNode {
       if (arg0 instanceof Section) {
          Section soo = (Section) arg0;
          for (int i = 0; i < this.sectionCount(); i++) {
-            if (this.getSection(i).equals(soo))
+            if (this.getSection(i) == soo)
                return i;
          }
          return -1;
       } else if (arg0 instanceof Property) {
          Property poo = (Property) arg0;
          for (int j = 0; j < this.propertyCount(); j++) {
-            if (this.getProperty(j).equals(poo))
+            if (this.getProperty(j) == poo)
                return (j + this.sectionCount());
          }
          return -1;
@@ -2039,10 +2656,14 @@ public class Section extends Object implements Serializable, TreeNode {
    public void setLink(String link, boolean ignore) {
       if (link == null) {
          this.link = null;
+         updateLinkIndex();
+         changed();
          return;
       }
       if (ignore) {
          this.link = link;
+         updateLinkIndex();
+         changed();
       } else {
 
          if (!link.startsWith("/")) {
@@ -2064,6 +2685,8 @@ public class Section extends Object implements Serializable, TreeNode {
             return;
          }
          this.link = link;
+         updateLinkIndex();
+         changed();
       }
    }
 
@@ -2087,6 +2710,7 @@ public class Section extends Object implements Serializable, TreeNode {
     */
    public void setInclude(String include) {
       this.include = include;
+      changed();
    }
 
 
@@ -2202,6 +2826,7 @@ public class Section extends Object implements Serializable, TreeNode {
          this.merge(includeSection, Section.MERGE_THIS_OVERRIDES_OTHER);
       }
       this.include = null;
+      changed();
    }
 
    private Section locateIncludeSection(Section temp, String includePath) {
@@ -2260,10 +2885,14 @@ public class Section extends Object implements Serializable, TreeNode {
     * call this function on the rootSection.
     */
    public void loadAllIncludes() {
-      this.loadInclude();
-      for (int i = 0; i < sectionCount(); i++) {
-         this.getSection(i).loadAllIncludes();
-      }
+      accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            section.loadInclude();
+            return Result.CONTINUE;
+         }
+      });
    }
 
 
@@ -2297,31 +2926,57 @@ public class Section extends Object implements Serializable, TreeNode {
     * @return {@link Section} the root section.
     */
    public Section getRootSection() {
-      Section root = null;
-      if (this.getParent()== null) {
-         root = this;
-      } else {
-         root = parent.getRootSection();
+      Section root = this;
+      while (root.getParent() != null) {
+         root = root.getParent();
       }
       return root;
    }
 
 
+   /**
+    * Visits this section and all its subsections in document order. The traversal does not recurse and thus works on
+    * trees of any depth.
+    * 
+    * @param visitor
+    *            {@link SectionVisitor} the visitor.
+    * @return boolean true if all sections were visited, false if the visitor terminated the traversal.
+    */
+   public boolean accept(SectionVisitor visitor) {
+      return SectionVisitor.walk(this, visitor);
+   }
+
+
+   /**
+    * Visits this section and all its subsections, independent subtrees are visited concurrently. The visitor must be
+    * thread-safe. Each section is post-visited after all its subsections, but the order of sibling subtrees is not
+    * defined.
+    * 
+    * @param visitor
+    *            {@link SectionVisitor} the visitor.
+    * @return boolean true if all sections were visited, false if the visitor terminated the traversal.
+    */
+   public boolean acceptParallel(SectionVisitor visitor) {
+      return SectionVisitor.walkParallel(this, visitor);
+   }
+
+
    /**
     * Returns whether the tree starting at this section contains Includes (i.e. links to external resources). *
     * 
     * @return {@link Boolean} true if there are includes, false otherwise.
     */
    public boolean containsIncludes() {
-      if (this.include != null && !this.include.isEmpty()) {
-         return true;
-      }
-      for (int i = 0; i < sectionCount(); i++) {
-         if (getSection(i).containsIncludes()) {
-            return true;
+      return !accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section.include != null && !section.include.isEmpty()) {
+               return Result.TERMINATE;
+            }
+            return Result.CONTINUE;
          }
-      }
-      return false;
+      });
    }
 
 
@@ -2331,15 +2986,16 @@ public class Section extends Object implements Serializable, TreeNode {
     * @return {@link Boolean} true if there are links.
     */
    public boolean containsLinks() {
-      if (this.link != null && !this.link.isEmpty()) {
-         return true;
-      }
-      for (int i = 0; i < sectionCount(); i++) {
-         if (getSection(i).containsLinks()) {
-            return true;
+      return !accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section.link != null && !section.link.isEmpty()) {
+               return Result.TERMINATE;
+            }
+            return Result.CONTINUE;
          }
-      }
-      return false;
+      });
    }
 
 
@@ -2349,20 +3005,21 @@ public class Section extends Object implements Serializable, TreeNode {
     * @return {@link Boolean} true if mapping information is present, false otherwise.
     */
    public boolean containsMappings() {
-      if (this.mapping != null) {
-         return true;
-      }
-      for (int i = 0; i < propertyCount(); i++) {
-         if (getProperty(i).getMapping() != null) {
-            return true;
-         }
-      }
-      for (int i = 0; i < sectionCount(); i++) {
-         if (getSection(i).containsMappings()) {
-            return true;
+      return !accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section.mapping != null) {
+               return Result.TERMINATE;
+            }
+            for (int i = 0; i < section.propertyCount(); i++) {
+               if (section.getProperty(i).getMapping() != null) {
+                  return Result.TERMINATE;
+               }
+            }
+            return Result.CONTINUE;
          }
-      }
-      return false;
+      });
    }
 
 
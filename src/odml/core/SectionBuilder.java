@@ -0,0 +1,309 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.*;
+import org.slf4j.*;
+
+/**
+ * The {@link SectionBuilder} appends many sections and properties to a tree at once. {@link Section#add(Section)} and
+ * {@link Section#add(Property)} check for duplicates, rename, update the levels of the subtree and validate against the
+ * terminology on every call, which makes building large trees quadratic. The builder only records the additions and
+ * applies them all in {@link #build()}. Duplicates are then detected with hash lookups, levels are updated once per
+ * added subtree and each changed section is validated once.
+ * <p>
+ * The resulting tree is the same as if the additions had been made in the same order with the add methods of
+ * {@link Section}: sections with an existing name and type are renamed, properties with an existing name are merged
+ * into the existing property, and a 'name' property renames its section.
+ * <p>
+ * Parents may be sections of the tree or sections that were added to the builder earlier or later, e.g.
+ *
+ * <pre>
+ * SectionBuilder builder = new SectionBuilder(root);
+ * Section subject = new Section(&quot;subject&quot;, &quot;subject&quot;);
+ * builder.add(root, subject);
+ * builder.add(subject, new Property(&quot;age&quot;, 42));
+ * builder.build();
+ * </pre>
+ *
+ * The tree must not be changed by other means until {@link #build()} has been called.
+ *
+ * @since 10.2026
+ */
+public class SectionBuilder {
+
+   static Logger                 logger  = LoggerFactory.getLogger(SectionBuilder.class);
+   private final Section         root;
+   private final Vector<Section> parents = new Vector<Section>();
+   private final Vector<Object>  items   = new Vector<Object>();
+
+
+   /**
+    * Creates a builder that appends to the given section.
+    *
+    * @param root
+    *            {@link Section} the section to which {@link #add(Section)} appends.
+    */
+   public SectionBuilder(Section root) {
+      this.root = root;
+   }
+
+
+   /**
+    * Records a subsection that is appended to the section of this builder.
+    *
+    * @param section
+    *            {@link Section} the new subsection.
+    * @return boolean false if the section is null.
+    */
+   public boolean add(Section section) {
+      return add(root, section);
+   }
+
+
+   /**
+    * Records a subsection that is appended to the given parent.
+    *
+    * @param parent
+    *            {@link Section} the parent section.
+    * @param section
+    *            {@link Section} the new subsection.
+    * @return boolean false if one of the arguments is null.
+    */
+   public boolean add(Section parent, Section section) {
+      return record(parent, section);
+   }
+
+
+   /**
+    * Records subsections that are appended to the given parent in the order of the collection.
+    *
+    * @param parent
+    *            {@link Section} the parent section.
+    * @param sections
+    *            {@link Collection} of {@link Section}s the new subsections.
+    * @return boolean false if one of the arguments is null.
+    */
+   public boolean addAll(Section parent, Collection<? extends Section> sections) {
+      if (sections == null) {
+         logger.error("SectionBuilder.addAll: sections must not be null!");
+         return false;
+      }
+      boolean result = true;
+      for (Section s : sections) {
+         result &= record(parent, s);
+      }
+      return result;
+   }
+
+
+   /**
+    * Records a property that is added to the given section.
+    *
+    * @param parent
+    *            {@link Section} the section.
+    * @param property
+    *            {@link Property} the new property.
+    * @return boolean false if one of the arguments is null.
+    */
+   public boolean add(Section parent, Property property) {
+      return record(parent, property);
+   }
+
+
+   private boolean record(Section parent, Object item) {
+      if (parent == null || item == null) {
+         logger.error("SectionBuilder.add: neither parent nor the added element must be null!");
+         return false;
+      }
+      parents.add(parent);
+      items.add(item);
+      return true;
+   }
+
+
+   /**
+    * Returns the number of recorded additions that have not been applied yet.
+    *
+    * @return int the number of additions.
+    */
+   public int size() {
+      return items.size();
+   }
+
+
+   /**
+    * Applies all recorded additions and clears the builder.
+    *
+    * @return {@link Section} the section of this builder.
+    */
+   public Section build() {
+      IdentityHashMap<Section, Children> children = new IdentityHashMap<Section, Children>();
+      IdentityHashMap<Section, Section> appended = new IdentityHashMap<Section, Section>();
+      for (int i = 0; i < items.size(); i++) {
+         Section parent = parents.get(i);
+         Children c = children.get(parent);
+         if (c == null) {
+            c = new Children(parent);
+            children.put(parent, c);
+         }
+         Object item = items.get(i);
+         if (item instanceof Section) {
+            Section section = (Section) item;
+            c.add(section);
+            appended.put(section, section);
+         } else {
+            Property property = (Property) item;
+            String oldName = parent.getName();
+            c.add(property);
+            if (parent.getParent() != null && oldName != null && !oldName.equals(parent.getName())) {
+               Children siblings = children.get(parent.getParent());
+               if (siblings != null) {
+                  siblings.rename(parent, oldName);
+               }
+            }
+         }
+      }
+      for (Section s : appended.keySet()) {
+         if (!appended.containsKey(s.getParent())) {
+            s.updateLevel();
+         }
+      }
+      for (Section parent : children.keySet()) {
+         if (parent.hasTerminology()) {
+            parent.validateSection();
+         }
+         if (children.get(parent).hasSections) {
+            parent.invalidateLinkIndex();
+         }
+      }
+      parents.clear();
+      items.clear();
+      return root;
+   }
+
+
+   private static String key(String name, String type) {
+      return Section.foldCase(name) + "\u0000" + (type == null ? "" : Section.foldCase(type));
+   }
+
+
+   /**
+    * The hashed state of the subsections and properties of one parent section while building.
+    */
+   private static class Children {
+
+      final Section                  parent;
+      final HashSet<String>          sectionKeys     = new HashSet<String>();
+      final HashMap<String, Integer> typeCounts      = new HashMap<String, Integer>();
+      final HashMap<String, Integer> prefixCounts    = new HashMap<String, Integer>();
+      final HashMap<String, Property> properties     = new HashMap<String, Property>();
+      boolean                        hasSections     = false;
+
+
+      Children(Section parent) {
+         this.parent = parent;
+         for (int i = 0; i < parent.sectionCount(); i++) {
+            register(parent.getSection(i));
+         }
+         for (int i = 0; i < parent.propertyCount(); i++) {
+            Property p = parent.getProperty(i);
+            String name = Section.foldCase(p.getName());
+            if (!properties.containsKey(name)) {
+               properties.put(name, p);
+            }
+         }
+      }
+
+
+      private void register(Section s) {
+         sectionKeys.add(key(s.getName(), s.getType()));
+         if (s.getType() != null) {
+            String type = Section.foldCase(s.getType());
+            increment(typeCounts, type);
+            if (type.contains("/")) {
+               increment(prefixCounts, type.substring(0, type.indexOf("/")));
+            }
+         }
+      }
+
+
+      private static void increment(HashMap<String, Integer> counts, String key) {
+         Integer count = counts.get(key);
+         counts.put(key, count == null ? 1 : count + 1);
+      }
+
+
+      /**
+       * Same as {@link Section#getSectionsByType(String)}.size().
+       */
+      private int countOfType(String type) {
+         Integer exact = typeCounts.get(Section.foldCase(type));
+         Integer prefix = prefixCounts.get(Section.foldCase(type));
+         return (exact == null ? 0 : exact) + (prefix == null ? 0 : prefix);
+      }
+
+
+      void add(Section section) {
+         if (sectionKeys.contains(key(section.getName(), section.getType()))) {
+            logger.warn("There already exists a section with that name! Will append an index to the name!");
+            section.setName(section.getName() + countOfType(section.getType()));
+         }
+         parent.append(section);
+         register(section);
+         hasSections = true;
+      }
+
+
+      /**
+       * Updates the key of a subsection that was renamed by its 'name' property.
+       */
+      void rename(Section section, String oldName) {
+         String oldKey = key(oldName, section.getType());
+         for (int i = 0; i < parent.sectionCount(); i++) {
+            Section s = parent.getSection(i);
+            if (s != section && key(s.getName(), s.getType()).equals(oldKey)) {
+               sectionKeys.add(key(section.getName(), section.getType()));
+               return;
+            }
+         }
+         sectionKeys.remove(oldKey);
+         sectionKeys.add(key(section.getName(), section.getType()));
+      }
+
+
+      void add(Property property) {
+         if (parent.getParent() == null && parent.getType() == null) {
+            logger.error("! property must not be added to the root section (level == 0 && type == null)!");
+            return;
+         }
+         String name = Section.foldCase(property.getName());
+         Property existing = properties.get(name);
+         if (existing == property) {
+            logger.error("! nothing added as identical property already existing" + "\n\tproperty details: "
+                  + property.toString());
+            return;
+         } else if (existing != null) {
+            existing.addValue(property);
+         } else {
+            parent.append(property);
+            properties.put(name, property);
+         }
+         if (name.equals("name")) {
+            parent.setName(property.getValue(0).toString());
+            logger.info("Section.addProperty: New Property overrides the section name. Section name was replaced!");
+         }
+      }
+   }
+}
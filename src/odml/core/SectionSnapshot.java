@@ -0,0 +1,637 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.io.Serializable;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Date;
+import org.slf4j.*;
+
+/**
+ * A {@link SectionSnapshot} is an immutable version of a {@link Section} tree. Snapshots are created with
+ * {@link Section#snapshot()}. New versions are derived from a snapshot with its {@link Builder} which copies only the
+ * sections on the path to a change and shares all other subsections and properties with the version it was derived
+ * from. Deriving a version therefore costs time and memory in the order of the depth of the change, not of the size of
+ * the tree.
+ *
+ * Since subsections are shared between versions, a snapshot does not know its parent. Paths are always resolved
+ * relative to the snapshot they are passed to.
+ *
+ * @since 10.2026
+ */
+public final class SectionSnapshot implements Serializable {
+
+   static Logger                    logger           = LoggerFactory.getLogger(SectionSnapshot.class);
+   private static final long        serialVersionUID = 1L;
+   private final String             name, type, reference, definition, link, include, author, version;
+   private final URL                repository, mapping, fileUrl;
+   private final Date               date;
+   private final boolean            isTerminology;
+   private final PropertySnapshot[] properties;
+   private final SectionSnapshot[]  sections;
+
+
+   /**
+    * Creates the snapshot of a section and all its subsections.
+    *
+    * @param section
+    *            {@link Section} the section.
+    */
+   SectionSnapshot(Section section) {
+      this(section, snapshotSubsections(section));
+   }
+
+
+   private SectionSnapshot(Section section, SectionSnapshot[] sections) {
+      this.name = section.getName();
+      this.type = section.getType();
+      this.reference = section.getReference();
+      this.definition = section.getDefinition();
+      this.link = section.getLink();
+      this.include = section.getInclude();
+      this.author = section.getDocumentAuthor();
+      this.version = section.getDocumentVersion();
+      this.date = section.getDocumentDate() == null ? null : (Date) section.getDocumentDate().clone();
+      this.repository = section.getRepository();
+      this.mapping = section.getMapping();
+      this.fileUrl = section.getFileUrl();
+      this.isTerminology = section.isTerminology();
+      this.properties = new PropertySnapshot[section.propertyCount()];
+      for (int i = 0; i < properties.length; i++) {
+         properties[i] = new PropertySnapshot(section.getProperty(i));
+      }
+      this.sections = sections;
+   }
+
+
+   /**
+    * A section whose subsections are being snapshot.
+    */
+   private static final class Frame {
+
+      final Section           section;
+      final SectionSnapshot[] sections;
+      int                     next;
+
+
+      Frame(Section section) {
+         this.section = section;
+         this.sections = new SectionSnapshot[section.sectionCount()];
+      }
+   }
+
+
+   /**
+    * Creates the snapshots of all subsections bottom-up with an explicit stack, so that deep trees do not overflow
+    * the call stack.
+    *
+    * @return {@link SectionSnapshot}[] the snapshots of the direct subsections.
+    */
+   private static SectionSnapshot[] snapshotSubsections(Section section) {
+      ArrayDeque<Frame> stack = new ArrayDeque<Frame>();
+      stack.push(new Frame(section));
+      while (true) {
+         Frame frame = stack.peek();
+         if (frame.next < frame.sections.length) {
+            stack.push(new Frame(frame.section.getSection(frame.next)));
+            continue;
+         }
+         stack.pop();
+         if (stack.isEmpty()) {
+            return frame.sections;
+         }
+         Frame parent = stack.peek();
+         parent.sections[parent.next++] = new SectionSnapshot(frame.section, frame.sections);
+      }
+   }
+
+
+   /**
+    * Creates a new version of a snapshot with the same information but different properties or subsections.
+    */
+   private SectionSnapshot(SectionSnapshot other, PropertySnapshot[] properties,
+                           SectionSnapshot[] sections) {
+      this.name = other.name;
+      this.type = other.type;
+      this.reference = other.reference;
+      this.definition = other.definition;
+      this.link = other.link;
+      this.include = other.include;
+      this.author = other.author;
+      this.version = other.version;
+      this.date = other.date;
+      this.repository = other.repository;
+      this.mapping = other.mapping;
+      this.fileUrl = other.fileUrl;
+      this.isTerminology = other.isTerminology;
+      this.properties = properties;
+      this.sections = sections;
+   }
+
+
+   public String getName() {
+      return name;
+   }
+
+
+   public String getType() {
+      return type;
+   }
+
+
+   public String getReference() {
+      return reference;
+   }
+
+
+   public String getDefinition() {
+      return definition;
+   }
+
+
+   public String getLink() {
+      return link;
+   }
+
+
+   public String getInclude() {
+      return include;
+   }
+
+
+   public URL getRepository() {
+      return repository;
+   }
+
+
+   public URL getMapping() {
+      return mapping;
+   }
+
+
+   public String getDocumentAuthor() {
+      return author;
+   }
+
+
+   public String getDocumentVersion() {
+      return version;
+   }
+
+
+   public Date getDocumentDate() {
+      return date == null ? null : (Date) date.clone();
+   }
+
+
+   /**
+    * Returns the number of subsections.
+    *
+    * @return int the number of subsections.
+    */
+   public int sectionCount() {
+      return sections.length;
+   }
+
+
+   /**
+    * Returns the subsection at the given index.
+    *
+    * @param index
+    *            int the index.
+    * @return {@link SectionSnapshot} the subsection or null if the index is out of bounds.
+    */
+   public SectionSnapshot getSection(int index) {
+      if (index < 0 || index >= sections.length) {
+         logger.error("SectionSnapshot: Index exceeds number of subsections.");
+         return null;
+      }
+      return sections[index];
+   }
+
+
+   /**
+    * Returns the first subsection that matches the name, which may also be a path of '/' separated names. Matching is
+    * case-insensitive. A leading '/' is ignored, since the path is always resolved relative to this snapshot.
+    *
+    * @param path
+    *            {@link String} the name or path.
+    * @return {@link SectionSnapshot} the section or null if there is no such section.
+    */
+   public SectionSnapshot getSection(String path) {
+      SectionSnapshot s = this;
+      String[] names = splitPath(path);
+      for (int i = 0; i < names.length && s != null; i++) {
+         int index = s.indexOfSection(names[i]);
+         s = index < 0 ? null : s.sections[index];
+      }
+      return s;
+   }
+
+
+   /**
+    * Returns the number of properties.
+    *
+    * @return int the number of properties.
+    */
+   public int propertyCount() {
+      return properties.length;
+   }
+
+
+   /**
+    * Returns the property at the given index.
+    *
+    * @param index
+    *            int the index.
+    * @return {@link PropertySnapshot} the property or null if the index is out of bounds.
+    */
+   public PropertySnapshot getProperty(int index) {
+      if (index < 0 || index >= properties.length) {
+         logger.error("SectionSnapshot: Index exceeds number of properties.");
+         return null;
+      }
+      return properties[index];
+   }
+
+
+   /**
+    * Returns the first property that matches the name. Matching is case-insensitive.
+    *
+    * @param name
+    *            {@link String} the property name.
+    * @return {@link PropertySnapshot} the property or null if there is no such property.
+    */
+   public PropertySnapshot getProperty(String name) {
+      int index = indexOfProperty(name);
+      return index < 0 ? null : properties[index];
+   }
+
+
+   private int indexOfSection(String name) {
+      for (int i = 0; i < sections.length; i++) {
+         if (sections[i].name != null && sections[i].name.equalsIgnoreCase(name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+
+   private int indexOfProperty(String name) {
+      for (int i = 0; i < properties.length; i++) {
+         if (properties[i].getName().equalsIgnoreCase(name)) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+
+   /**
+    * Creates a new, mutable {@link Section} tree from this snapshot.
+    *
+    * @return {@link Section} the section.
+    */
+   public Section toSection() {
+      try {
+         Section root = toSection(null);
+         // the tree is built top-down with an explicit stack, so that deep trees do not overflow the call stack
+         ArrayDeque<SectionSnapshot> pending = new ArrayDeque<SectionSnapshot>();
+         ArrayDeque<Section> parents = new ArrayDeque<Section>();
+         pushSubsections(this, root, pending, parents);
+         while (!pending.isEmpty()) {
+            SectionSnapshot snapshot = pending.pop();
+            Section section = snapshot.toSection(parents.pop());
+            pushSubsections(snapshot, section, pending, parents);
+         }
+         return root;
+      } catch (Exception e) {
+         logger.error("SectionSnapshot.toSection: could not create section: ", e);
+         return null;
+      }
+   }
+
+
+   private static void pushSubsections(SectionSnapshot snapshot, Section section, ArrayDeque<SectionSnapshot> pending,
+                                       ArrayDeque<Section> parents) {
+      // pushed in reverse, so that the subsections are appended in their order
+      for (int i = snapshot.sections.length - 1; i >= 0; i--) {
+         pending.push(snapshot.sections[i]);
+         parents.push(section);
+      }
+   }
+
+
+   /**
+    * Creates the section with its information and properties, appended to the parent. The subsections are not
+    * created.
+    */
+   private Section toSection(Section parent) throws Exception {
+      Section section = null;
+      if (type == null) {
+         section = new Section();
+         section.setRepository(repository);
+      } else {
+         section = new Section(parent, name, type, reference, definition, repository, mapping);
+      }
+      section.setLink(link, true);
+      section.setInclude(include);
+      section.setAsTerminology(isTerminology);
+      if (parent == null) {
+         section.setDocumentAuthor(author);
+         section.setDocumentVersion(version);
+         section.setDocumentDate(getDocumentDate());
+         section.setFileUrl(fileUrl);
+      }
+      for (int i = 0; i < properties.length; i++) {
+         section.add(properties[i].toProperty());
+      }
+      return section;
+   }
+
+
+   /**
+    * Returns a {@link Builder} to derive a new version from this snapshot.
+    *
+    * @return {@link Builder} the builder.
+    */
+   public Builder edit() {
+      return new Builder(this);
+   }
+
+
+   @Override
+   public String toString() {
+      if (type == null) {
+         return "root section snapshot";
+      }
+      return (this.name + " - [" + this.type + "]");
+   }
+
+
+   private static String[] splitPath(String path) {
+      if (path == null) {
+         return new String[0];
+      }
+      while (path.startsWith("/")) {
+         path = path.substring(1);
+      }
+      while (path.endsWith("/")) {
+         path = path.substring(0, path.length() - 1);
+      }
+      if (path.isEmpty()) {
+         return new String[0];
+      }
+      return path.split("/");
+   }
+
+
+   /**
+    * A change that is applied to the section at the end of a path. Returns the changed copy of the section or null if
+    * the change cannot be applied.
+    */
+   private interface Edit {
+
+      SectionSnapshot apply(SectionSnapshot section);
+   }
+
+
+   /**
+    * Copies the sections on the path to the changed section. All other subsections are shared.
+    */
+   private static SectionSnapshot update(SectionSnapshot section, String[] names, int depth, Edit edit) {
+      if (depth == names.length) {
+         return edit.apply(section);
+      }
+      int index = section.indexOfSection(names[depth]);
+      if (index < 0) {
+         logger.error("SectionSnapshot.Builder: could not locate section: " + names[depth]);
+         return null;
+      }
+      SectionSnapshot changed = update(section.sections[index], names, depth + 1, edit);
+      if (changed == null) {
+         return null;
+      }
+      SectionSnapshot[] sections = section.sections.clone();
+      sections[index] = changed;
+      return new SectionSnapshot(section, section.properties, sections);
+   }
+
+
+   /**
+    * The {@link Builder} derives new versions of a {@link SectionSnapshot}. Each change copies the sections on the path
+    * from the root to the changed section, everything else is shared with the previous version. Paths are '/'
+    * separated section names relative to the snapshot the builder was created from, the empty path addresses this
+    * snapshot itself. The snapshot the builder was created from is never changed.
+    */
+   public static class Builder {
+
+      private SectionSnapshot root;
+
+
+      /**
+       * Creates a builder that derives versions from the given snapshot.
+       *
+       * @param root
+       *            {@link SectionSnapshot} the snapshot.
+       */
+      public Builder(SectionSnapshot root) {
+         this.root = root;
+      }
+
+
+      private boolean apply(String path, Edit edit) {
+         SectionSnapshot changed = update(root, splitPath(path), 0, edit);
+         if (changed == null) {
+            return false;
+         }
+         root = changed;
+         return true;
+      }
+
+
+      /**
+       * Adds a property to the section at the end of the path. An existing property with the same name is replaced.
+       *
+       * @param path
+       *            {@link String} the section path.
+       * @param property
+       *            {@link Property} the property, it is copied.
+       * @return boolean true if the change was applied, false if the path could not be resolved.
+       */
+      public boolean setProperty(String path, Property property) {
+         final PropertySnapshot p = new PropertySnapshot(property);
+         return apply(path, new Edit() {
+
+            public SectionSnapshot apply(SectionSnapshot section) {
+               int index = section.indexOfProperty(p.getName());
+               PropertySnapshot[] properties;
+               if (index < 0) {
+                  properties = new PropertySnapshot[section.properties.length + 1];
+                  System.arraycopy(section.properties, 0, properties, 0, section.properties.length);
+                  properties[section.properties.length] = p;
+               } else {
+                  properties = section.properties.clone();
+                  properties[index] = p;
+               }
+               return new SectionSnapshot(section, properties, section.sections);
+            }
+         });
+      }
+
+
+      /**
+       * Removes a property from the section at the end of the path.
+       *
+       * @param path
+       *            {@link String} the section path.
+       * @param name
+       *            {@link String} the property name.
+       * @return boolean true if the change was applied, false if the section or the property do not exist.
+       */
+      public boolean removeProperty(String path, final String name) {
+         return apply(path, new Edit() {
+
+            public SectionSnapshot apply(SectionSnapshot section) {
+               int index = section.indexOfProperty(name);
+               if (index < 0) {
+                  logger.error("SectionSnapshot.Builder: could not locate property: " + name);
+                  return null;
+               }
+               return new SectionSnapshot(section, remove(section.properties,
+                     new PropertySnapshot[section.properties.length - 1], index), section.sections);
+            }
+         });
+      }
+
+
+      /**
+       * Appends a section to the section at the end of the path. A snapshot of the section and its subsections is
+       * taken.
+       *
+       * @param path
+       *            {@link String} the path of the parent section.
+       * @param section
+       *            {@link Section} the new subsection.
+       * @return boolean true if the change was applied, false otherwise.
+       */
+      public boolean addSection(String path, Section section) {
+         return addSection(path, section.snapshot());
+      }
+
+
+      /**
+       * Appends a snapshot to the section at the end of the path. The snapshot is shared, not copied.
+       *
+       * @param path
+       *            {@link String} the path of the parent section.
+       * @param section
+       *            {@link SectionSnapshot} the new subsection.
+       * @return boolean true if the change was applied, false if the path could not be resolved or a subsection with
+       *         the same name and type already exists.
+       */
+      public boolean addSection(String path, final SectionSnapshot section) {
+         return apply(path, new Edit() {
+
+            public SectionSnapshot apply(SectionSnapshot parent) {
+               int index = parent.indexOfSection(section.name);
+               if (index > -1 && parent.sections[index].type.equalsIgnoreCase(section.type)) {
+                  logger.error("SectionSnapshot.Builder: there already exists a section with that name: "
+                        + section.name);
+                  return null;
+               }
+               SectionSnapshot[] sections = new SectionSnapshot[parent.sections.length + 1];
+               System.arraycopy(parent.sections, 0, sections, 0, parent.sections.length);
+               sections[parent.sections.length] = section;
+               return new SectionSnapshot(parent, parent.properties, sections);
+            }
+         });
+      }
+
+
+      /**
+       * Replaces the section at the end of the path by the given snapshot.
+       *
+       * @param path
+       *            {@link String} the section path, must not be empty.
+       * @param section
+       *            {@link SectionSnapshot} the replacement, it is shared, not copied.
+       * @return boolean true if the change was applied, false if the path could not be resolved.
+       */
+      public boolean replaceSection(String path, final SectionSnapshot section) {
+         if (splitPath(path).length == 0) {
+            root = section;
+            return true;
+         }
+         return apply(path, new Edit() {
+
+            public SectionSnapshot apply(SectionSnapshot old) {
+               return section;
+            }
+         });
+      }
+
+
+      /**
+       * Removes the section at the end of the path.
+       *
+       * @param path
+       *            {@link String} the section path, must not be empty.
+       * @return boolean true if the change was applied, false if the path could not be resolved.
+       */
+      public boolean removeSection(String path) {
+         String[] names = splitPath(path);
+         if (names.length == 0) {
+            logger.error("SectionSnapshot.Builder: cannot remove the root of the snapshot!");
+            return false;
+         }
+         final String name = names[names.length - 1];
+         StringBuilder parentPath = new StringBuilder();
+         for (int i = 0; i < names.length - 1; i++) {
+            parentPath.append(names[i]).append("/");
+         }
+         return apply(parentPath.toString(), new Edit() {
+
+            public SectionSnapshot apply(SectionSnapshot parent) {
+               int index = parent.indexOfSection(name);
+               if (index < 0) {
+                  logger.error("SectionSnapshot.Builder: could not locate section: " + name);
+                  return null;
+               }
+               return new SectionSnapshot(parent, parent.properties, remove(parent.sections,
+                     new SectionSnapshot[parent.sections.length - 1], index));
+            }
+         });
+      }
+
+
+      /**
+       * Returns the current version.
+       *
+       * @return {@link SectionSnapshot} the snapshot including all changes applied so far.
+       */
+      public SectionSnapshot build() {
+         return root;
+      }
+
+
+      private static <T> T[] remove(T[] source, T[] target, int index) {
+         System.arraycopy(source, 0, target, 0, index);
+         System.arraycopy(source, index + 1, target, index, source.length - index - 1);
+         return target;
+      }
+   }
+}
@@ -0,0 +1,161 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayDeque;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The {@link SectionSpliterator} traverses a section tree in document order (pre-order). The pending work is kept as a
+ * deque of whole subtrees, so that splitting hands over complete subtrees and never visits a section twice. If only a
+ * single subtree is left, it is split into its root and its subsections. The spliterator is used by the stream
+ * methods of {@link Section}, such as {@link Section#descendants()}.
+ *
+ * The tree must not be modified while it is traversed.
+ *
+ * @since 10.2026
+ */
+class SectionSpliterator implements Spliterator<Section> {
+
+   /**
+    * A pending section. If deep, the subsections are visited after the section itself.
+    */
+   private static final class Pending {
+
+      final Section section;
+      final boolean deep;
+
+
+      Pending(Section section, boolean deep) {
+         this.section = section;
+         this.deep = deep;
+      }
+   }
+
+   private final ArrayDeque<Pending> pending;
+   private long                      estimate;
+
+
+   /**
+    * Creates a spliterator over the given section and all its subsections.
+    *
+    * @param section
+    *            {@link Section} the root of the traversed subtree.
+    * @param includeSelf
+    *            boolean whether the section itself is part of the traversal or only its descendants.
+    */
+   SectionSpliterator(Section section, boolean includeSelf) {
+      this.pending = new ArrayDeque<Pending>();
+      this.estimate = Long.MAX_VALUE;
+      if (includeSelf) {
+         pending.add(new Pending(section, true));
+      } else {
+         for (int i = 0; i < section.sectionCount(); i++) {
+            pending.addLast(new Pending(section.getSection(i), true));
+         }
+      }
+   }
+
+
+   private SectionSpliterator(ArrayDeque<Pending> pending, long estimate) {
+      this.pending = pending;
+      this.estimate = estimate;
+   }
+
+
+   @Override
+   public boolean tryAdvance(Consumer<? super Section> action) {
+      Pending next = pending.pollFirst();
+      if (next == null) {
+         return false;
+      }
+      if (next.deep) {
+         for (int i = next.section.sectionCount() - 1; i >= 0; i--) {
+            pending.addFirst(new Pending(next.section.getSection(i), true));
+         }
+      }
+      action.accept(next.section);
+      return true;
+   }
+
+
+   @Override
+   public void forEachRemaining(Consumer<? super Section> action) {
+      Pending next;
+      while ((next = pending.pollFirst()) != null) {
+         action.accept(next.section);
+         if (next.deep) {
+            forEachDescendant(next.section, action);
+         }
+      }
+   }
+
+
+   /**
+    * Visits the subsections at any depth in document order, with an explicit stack like {@link #tryAdvance}.
+    */
+   private static void forEachDescendant(Section section, Consumer<? super Section> action) {
+      ArrayDeque<Section> stack = new ArrayDeque<Section>();
+      for (int i = section.sectionCount() - 1; i >= 0; i--) {
+         stack.push(section.getSection(i));
+      }
+      while (!stack.isEmpty()) {
+         Section s = stack.pop();
+         action.accept(s);
+         for (int i = s.sectionCount() - 1; i >= 0; i--) {
+            stack.push(s.getSection(i));
+         }
+      }
+   }
+
+
+   @Override
+   public Spliterator<Section> trySplit() {
+      if (pending.size() == 1) {
+         Pending single = pending.peekFirst();
+         if (!single.deep || single.section.sectionCount() == 0) {
+            return null;
+         }
+         pending.pollFirst();
+         pending.add(new Pending(single.section, false));
+         for (int i = 0; i < single.section.sectionCount(); i++) {
+            pending.addLast(new Pending(single.section.getSection(i), true));
+         }
+      }
+      if (pending.size() < 2) {
+         return null;
+      }
+      // the prefix in document order is handed over, this spliterator keeps the rest
+      int half = pending.size() / 2;
+      ArrayDeque<Pending> prefix = new ArrayDeque<Pending>(half);
+      for (int i = 0; i < half; i++) {
+         prefix.addLast(pending.pollFirst());
+      }
+      estimate = estimate >>> 1;
+      return new SectionSpliterator(prefix, estimate);
+   }
+
+
+   @Override
+   public long estimateSize() {
+      return pending.isEmpty() ? 0 : estimate;
+   }
+
+
+   @Override
+   public int characteristics() {
+      return ORDERED | NONNULL;
+   }
+}
@@ -0,0 +1,189 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link SectionVisitor} is called for each section of a tree by {@link Section#accept(SectionVisitor)}. The
+ * traversal uses an explicit stack instead of recursion, so it also works on trees that are thousands of levels deep.
+ * {@link #preVisit(Section)} is called before the subsections of a section are visited, {@link #postVisit(Section)}
+ * after all of them have been visited. Both return a {@link Result} that controls the traversal. Subsections that are
+ * added during {@link #preVisit(Section)} are visited as well.
+ * <p>
+ * With {@link Section#acceptParallel(SectionVisitor)} independent subtrees are visited concurrently. Parallel
+ * visitors must be thread-safe and must not rely on the order of sibling subtrees; a section is still post-visited
+ * after all its subsections.
+ *
+ * @since 10.2026
+ */
+public abstract class SectionVisitor {
+
+   /**
+    * Controls how the traversal continues after a section has been visited.
+    */
+   public enum Result {
+      /** Continue with the next section. */
+      CONTINUE,
+      /** Do not visit the subsections of this section and skip its post-visit. Same as CONTINUE in a post-visit. */
+      SKIP_SUBTREE,
+      /** Stop the traversal. */
+      TERMINATE
+   }
+
+   /**
+    * Subtrees are only forked up to this depth below the start section, deeper levels are visited sequentially.
+    */
+   private static final int FORK_DEPTH = 12;
+
+
+   /**
+    * Called before the subsections of the section are visited.
+    *
+    * @param section
+    *            {@link Section} the section.
+    * @return {@link Result} how to continue, the default is {@link Result#CONTINUE}.
+    */
+   public Result preVisit(Section section) {
+      return Result.CONTINUE;
+   }
+
+
+   /**
+    * Called after all subsections of the section have been visited.
+    *
+    * @param section
+    *            {@link Section} the section.
+    * @return {@link Result} how to continue, the default is {@link Result#CONTINUE}.
+    */
+   public Result postVisit(Section section) {
+      return Result.CONTINUE;
+   }
+
+
+   /**
+    * Visits the section and all its subsections in document order.
+    *
+    * @return boolean true if the traversal was completed, false if it was terminated.
+    */
+   static boolean walk(Section start, SectionVisitor visitor) {
+      return walk(start, visitor, null);
+   }
+
+
+   static boolean walkParallel(Section start, SectionVisitor visitor) {
+      AtomicBoolean stop = new AtomicBoolean(false);
+      ForkJoinPool.commonPool().invoke(new SubtreeTask(start, visitor, stop, 0));
+      return !stop.get();
+   }
+
+
+   private static boolean walk(Section start, SectionVisitor visitor, AtomicBoolean stop) {
+      Result result = visitor.preVisit(start);
+      if (result != Result.CONTINUE) {
+         return terminated(result, stop);
+      }
+      ArrayList<Section> path = new ArrayList<Section>();
+      int[] next = new int[16];
+      path.add(start);
+      while (!path.isEmpty()) {
+         if (stop != null && stop.get()) {
+            return false;
+         }
+         int top = path.size() - 1;
+         Section section = path.get(top);
+         if (next[top] < section.subsections.size()) {
+            Section child = section.subsections.get(next[top]++);
+            result = visitor.preVisit(child);
+            if (result == Result.CONTINUE) {
+               if (path.size() == next.length) {
+                  int[] temp = new int[next.length * 2];
+                  System.arraycopy(next, 0, temp, 0, next.length);
+                  next = temp;
+               }
+               next[path.size()] = 0;
+               path.add(child);
+            } else if (result == Result.TERMINATE) {
+               return terminated(result, stop);
+            }
+         } else {
+            path.remove(top);
+            if (visitor.postVisit(section) == Result.TERMINATE) {
+               return terminated(Result.TERMINATE, stop);
+            }
+         }
+      }
+      return true;
+   }
+
+
+   private static boolean terminated(Result result, AtomicBoolean stop) {
+      if (result != Result.TERMINATE) {
+         return true;
+      }
+      if (stop != null) {
+         stop.set(true);
+      }
+      return false;
+   }
+
+
+   /**
+    * Visits a subtree, forking one task per subsection until {@link #FORK_DEPTH} is reached.
+    */
+   private static class SubtreeTask extends RecursiveAction {
+
+      private static final long    serialVersionUID = 1L;
+      private final Section        section;
+      private final SectionVisitor visitor;
+      private final AtomicBoolean  stop;
+      private final int            depth;
+
+
+      SubtreeTask(Section section, SectionVisitor visitor, AtomicBoolean stop, int depth) {
+         this.section = section;
+         this.visitor = visitor;
+         this.stop = stop;
+         this.depth = depth;
+      }
+
+
+      @Override
+      protected void compute() {
+         if (stop.get()) {
+            return;
+         }
+         if (depth >= FORK_DEPTH || section.sectionCount() < 2) {
+            walk(section, visitor, stop);
+            return;
+         }
+         Result result = visitor.preVisit(section);
+         if (result != Result.CONTINUE) {
+            terminated(result, stop);
+            return;
+         }
+         SubtreeTask[] tasks = new SubtreeTask[section.sectionCount()];
+         for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new SubtreeTask(section.subsections.get(i), visitor, stop, depth + 1);
+         }
+         invokeAll(tasks);
+         if (!stop.get() && visitor.postVisit(section) == Result.TERMINATE) {
+            stop.set(true);
+         }
+      }
+   }
+}
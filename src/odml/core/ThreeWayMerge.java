@@ -0,0 +1,354 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Implements the three-way merge of {@link Section#merge3(Section, Section, Section, int)}. The merged tree starts as
+ * a copy of 'mine'. The trees are walked once in parallel; subsections are identified by name and type, properties by
+ * their name, and matched with hash maps. Whatever was changed only in 'theirs' with respect to the base is applied to
+ * the copy, changes made in both versions are resolved according to the policy and reported as
+ * {@link MergeConflict}s.
+ *
+ * @since 10.2026
+ */
+class ThreeWayMerge {
+
+   private final int                   policy;
+   private final Vector<MergeConflict> conflicts = new Vector<MergeConflict>();
+
+
+   private ThreeWayMerge(int policy) {
+      this.policy = policy;
+   }
+
+
+   static MergeResult merge(Section base, Section mine, Section theirs, int policy) {
+      ThreeWayMerge merge = new ThreeWayMerge(policy);
+      Section result = mine.clone();
+      // result, base, mine, theirs; base may be null
+      ArrayDeque<Section[]> pending = new ArrayDeque<Section[]>();
+      ArrayDeque<String> paths = new ArrayDeque<String>();
+      pending.add(new Section[] { result, base, mine, theirs });
+      paths.add("");
+      while (!pending.isEmpty()) {
+         Section[] nodes = pending.poll();
+         String path = paths.poll();
+         merge.mergeAttributes(nodes[0], nodes[1], nodes[2], nodes[3], path);
+         merge.mergeProperties(nodes[0], nodes[1], nodes[2], nodes[3], path);
+         merge.mergeSections(nodes[0], nodes[1], nodes[2], nodes[3], path, pending, paths);
+      }
+      return new MergeResult(result, merge.conflicts);
+   }
+
+
+   private void mergeAttributes(Section result, Section base, Section mine, Section theirs, String path) {
+      String definition = (String) choose(path, "definition", base == null ? null : base.getDefinition(),
+            mine.getDefinition(), theirs.getDefinition());
+      if (!same(definition, mine.getDefinition())) {
+         result.setDefinition(definition);
+      }
+      String reference = (String) choose(path, "reference", base == null ? null : base.getReference(),
+            mine.getReference(), theirs.getReference());
+      if (!same(reference, mine.getReference())) {
+         result.setReference(reference);
+      }
+      // the own repositories, a change on an ancestor is merged there only
+      URL repository = (URL) choose(path, "repository", base == null ? null : base.getOwnRepository(),
+            mine.getOwnRepository(), theirs.getOwnRepository());
+      if (!same(repository, mine.getOwnRepository())) {
+         result.setRepository(repository);
+      }
+      URL mapping = (URL) choose(path, "mapping", base == null ? null : base.getMapping(),
+            mine.getMapping(), theirs.getMapping());
+      if (!same(mapping, mine.getMapping())) {
+         result.setMapping(mapping);
+      }
+      String link = (String) choose(path, "link", base == null ? null : base.getLink(), mine.getLink(),
+            theirs.getLink());
+      if (!same(link, mine.getLink())) {
+         result.setLink(link, true);
+      }
+      String include = (String) choose(path, "include", base == null ? null : base.getInclude(),
+            mine.getInclude(), theirs.getInclude());
+      if (!same(include, mine.getInclude())) {
+         result.setInclude(include);
+      }
+      String author = (String) choose(path, "author", base == null ? null : base.getDocumentAuthor(),
+            mine.getDocumentAuthor(), theirs.getDocumentAuthor());
+      if (!same(author, mine.getDocumentAuthor())) {
+         result.setDocumentAuthor(author);
+      }
+      String version = (String) choose(path, "version", base == null ? null : base.getDocumentVersion(),
+            mine.getDocumentVersion(), theirs.getDocumentVersion());
+      if (!same(version, mine.getDocumentVersion())) {
+         result.setDocumentVersion(version);
+      }
+   }
+
+
+   /**
+    * Chooses the version of an attribute and records a conflict if both versions changed it differently.
+    */
+   private Object choose(String path, String name, Object base, Object mine, Object theirs) {
+      if (same(mine, theirs) || same(base, theirs)) {
+         return mine;
+      }
+      if (same(base, mine)) {
+         return theirs;
+      }
+      conflicts.add(new MergeConflict(MergeConflict.Kind.ATTRIBUTE, path(path), name, base, mine, theirs));
+      if (policy == Section.MERGE_OTHER_OVERRIDES_THIS) {
+         return theirs;
+      }
+      if (policy == Section.MERGE_COMBINE && name.equals("definition") && mine != null && theirs != null) {
+         return mine + "\n" + theirs;
+      }
+      return mine;
+   }
+
+
+   private void mergeProperties(Section result, Section base, Section mine, Section theirs, String path) {
+      HashMap<String, Property> baseProperties = propertyMap(base);
+      HashMap<String, Property> theirProperties = propertyMap(theirs);
+      HashMap<String, Property> myProperties = propertyMap(mine);
+      Vector<Property> merged = new Vector<Property>();
+      boolean changed = false;
+      for (int i = 0; i < mine.propertyCount(); i++) {
+         Property p = mine.getProperty(i);
+         Property kept = result.getProperty(i);
+         String key = Section.foldCase(p.getName());
+         Property b = baseProperties.get(key), t = theirProperties.get(key);
+         if (myProperties.get(key) != p || sameProperty(p, t) || sameProperty(b, t)) {
+            merged.add(kept);
+            continue;
+         }
+         changed = true;
+         if (sameProperty(b, p)) {
+            if (t != null) {
+               merged.add(t.clone());
+            }
+            continue;
+         }
+         conflicts.add(new MergeConflict(MergeConflict.Kind.PROPERTY, path(path), p.getName(), b, p, t));
+         if (policy == Section.MERGE_OTHER_OVERRIDES_THIS) {
+            if (t != null) {
+               merged.add(t.clone());
+            }
+         } else {
+            if (policy == Section.MERGE_COMBINE && t != null) {
+               kept.merge(t, Section.MERGE_COMBINE);
+            }
+            merged.add(kept);
+         }
+      }
+      for (int i = 0; i < theirs.propertyCount(); i++) {
+         Property t = theirs.getProperty(i);
+         String key = Section.foldCase(t.getName());
+         if (myProperties.containsKey(key) || theirProperties.get(key) != t) {
+            continue;
+         }
+         Property b = baseProperties.get(key);
+         if (b == null) {
+            merged.add(t.clone());
+            changed = true;
+         } else if (!sameProperty(b, t)) {
+            conflicts.add(new MergeConflict(MergeConflict.Kind.PROPERTY, path(path), t.getName(), b, null, t));
+            if (policy != Section.MERGE_THIS_OVERRIDES_OTHER) {
+               merged.add(t.clone());
+               changed = true;
+            }
+         }
+      }
+      if (changed) {
+         result.getProperties().clear();
+         for (Property p : merged) {
+            result.append(p);
+         }
+      }
+   }
+
+
+   private void mergeSections(Section result, Section base, Section mine, Section theirs, String path,
+                              ArrayDeque<Section[]> pending, ArrayDeque<String> paths) {
+      HashMap<String, Section> baseSections = sectionMap(base);
+      HashMap<String, Section> theirSections = sectionMap(theirs);
+      HashMap<String, Section> mySections = sectionMap(mine);
+      Vector<Section> merged = new Vector<Section>();
+      boolean changed = false;
+      for (int i = 0; i < mine.sectionCount(); i++) {
+         Section m = mine.getSection(i);
+         Section kept = result.getSection(i);
+         String key = key(m);
+         Section b = baseSections.get(key), t = theirSections.get(key);
+         if (mySections.get(key) != m) {
+            merged.add(kept);
+         } else if (t != null) {
+            merged.add(kept);
+            pending.add(new Section[] { kept, b, m, t });
+            paths.add(path + "/" + m.getName());
+         } else if (b == null) {
+            merged.add(kept);
+         } else if (sameTree(b, m)) {
+            changed = true;
+         } else {
+            conflicts.add(new MergeConflict(MergeConflict.Kind.SECTION, path(path), m.getName(), b, m, null));
+            if (policy == Section.MERGE_OTHER_OVERRIDES_THIS) {
+               changed = true;
+            } else {
+               merged.add(kept);
+            }
+         }
+      }
+      for (int i = 0; i < theirs.sectionCount(); i++) {
+         Section t = theirs.getSection(i);
+         String key = key(t);
+         if (mySections.containsKey(key) || theirSections.get(key) != t) {
+            continue;
+         }
+         Section b = baseSections.get(key);
+         if (b == null) {
+            merged.add(t.clone());
+            changed = true;
+         } else if (!sameTree(b, t)) {
+            conflicts.add(new MergeConflict(MergeConflict.Kind.SECTION, path(path), t.getName(), b, null, t));
+            if (policy != Section.MERGE_THIS_OVERRIDES_OTHER) {
+               merged.add(t.clone());
+               changed = true;
+            }
+         }
+      }
+      if (changed) {
+         result.subsections.clear();
+         for (Section s : merged) {
+            result.append(s);
+            s.updateLevel();
+         }
+         result.invalidateLinkIndex();
+      }
+   }
+
+
+   private static String path(String path) {
+      return path.isEmpty() ? "/" : path;
+   }
+
+
+   private static String key(Section section) {
+      return Section.foldCase(section.getName()) + "\u0000"
+            + (section.getType() == null ? "" : Section.foldCase(section.getType()));
+   }
+
+
+   private static HashMap<String, Property> propertyMap(Section section) {
+      HashMap<String, Property> map = new HashMap<String, Property>();
+      if (section != null) {
+         for (int i = section.propertyCount() - 1; i >= 0; i--) {
+            map.put(Section.foldCase(section.getProperty(i).getName()), section.getProperty(i));
+         }
+      }
+      return map;
+   }
+
+
+   private static HashMap<String, Section> sectionMap(Section section) {
+      HashMap<String, Section> map = new HashMap<String, Section>();
+      if (section != null) {
+         for (int i = section.sectionCount() - 1; i >= 0; i--) {
+            map.put(key(section.getSection(i)), section.getSection(i));
+         }
+      }
+      return map;
+   }
+
+
+   /**
+    * Compares attributes, URLs by their text since {@link URL#equals(Object)} resolves host names.
+    */
+   private static boolean same(Object a, Object b) {
+      if (a == null || b == null) {
+         return a == b;
+      }
+      if (a instanceof URL && b instanceof URL) {
+         return a.toString().equals(b.toString());
+      }
+      return a.equals(b);
+   }
+
+
+   /**
+    * Returns whether two properties are equal in their information and in all their values.
+    */
+   static boolean sameProperty(Property a, Property b) {
+      if (a == null || b == null) {
+         return a == b;
+      }
+      if (!a.getName().equalsIgnoreCase(b.getName()) || !same(a.getDefinition(), b.getDefinition())
+            || !same(a.getDependency(), b.getDependency())
+            || !same(a.getDependencyValue(), b.getDependencyValue())
+            || !same(a.getMapping(), b.getMapping()) || a.valueCount() != b.valueCount()) {
+         return false;
+      }
+      for (int i = 0; i < a.valueCount(); i++) {
+         Value v = a.valueAt(i), w = b.valueAt(i);
+         if (!same(v.getComparableContent(), w.getComparableContent()) || !same(v.getType(), w.getType())
+               || !same(v.getUnit(), w.getUnit()) || !same(v.getUncertainty(), w.getUncertainty())
+               || !same(v.getReference(), w.getReference()) || !same(v.getDefinition(), w.getDefinition())
+               || !same(v.getFilename(), w.getFilename())) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+
+   /**
+    * Returns whether two subtrees are equal in the information and properties of all sections.
+    */
+   static boolean sameTree(Section a, Section b) {
+      ArrayDeque<Section[]> pending = new ArrayDeque<Section[]>();
+      pending.add(new Section[] { a, b });
+      while (!pending.isEmpty()) {
+         Section[] pair = pending.poll();
+         Section s = pair[0], t = pair[1];
+         // equal hashes are confirmed exactly, a collision must not hide a change
+         if (ContentHash.equal(s, t)) {
+            continue;
+         }
+         if (!same(s.getDefinition(), t.getDefinition()) || !same(s.getReference(), t.getReference())
+               || !same(s.getOwnRepository(), t.getOwnRepository()) || !same(s.getMapping(), t.getMapping())
+               || !same(s.getLink(), t.getLink()) || !same(s.getInclude(), t.getInclude())
+               || s.propertyCount() != t.propertyCount() || s.sectionCount() != t.sectionCount()) {
+            return false;
+         }
+         HashMap<String, Property> properties = propertyMap(t);
+         for (int i = 0; i < s.propertyCount(); i++) {
+            if (!sameProperty(s.getProperty(i), properties.get(Section.foldCase(s.getProperty(i).getName())))) {
+               return false;
+            }
+         }
+         HashMap<String, Section> sections = sectionMap(t);
+         for (int i = 0; i < s.sectionCount(); i++) {
+            Section other = sections.get(key(s.getSection(i)));
+            if (other == null) {
+               return false;
+            }
+            pending.add(new Section[] { s.getSection(i), other });
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,115 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A {@link TreeEvent} describes a single change of a tree that is delivered to the registered {@link TreeListener}s.
+ *
+ * @since 10.2026
+ */
+public final class TreeEvent {
+
+   /**
+    * The kind of change.
+    */
+   public enum Type {
+      /** A subsection was added to the parent. */
+      SECTION_ADDED,
+      /** A subsection was removed from the parent, also if it was moved to another tree. */
+      SECTION_REMOVED,
+      /** A section was moved from its old parent to the parent. Reported to the tree it was moved to. */
+      SECTION_MOVED,
+      /** A section was renamed. */
+      SECTION_RENAMED,
+      /** The information of a section, e.g. its definition or link, changed. */
+      SECTION_CHANGED,
+      /** A property was added to the parent. */
+      PROPERTY_ADDED,
+      /** A property was removed from the parent. */
+      PROPERTY_REMOVED,
+      /** The values or the information of a property changed. */
+      PROPERTY_CHANGED
+   }
+
+   private final Type     type;
+   private final Section  parent, section;
+   private final Property property;
+   private final Object   old;
+
+
+   TreeEvent(Type type, Section parent, Section section, Property property, Object old) {
+      this.type = type;
+      this.parent = parent;
+      this.section = section;
+      this.property = property;
+      this.old = old;
+   }
+
+
+   /**
+    * @return {@link Type} the kind of change.
+    */
+   public Type getType() {
+      return type;
+   }
+
+
+   /**
+    * @return {@link Section} the section whose subsections or properties changed. For SECTION_RENAMED and
+    *         SECTION_CHANGED the changed section itself.
+    */
+   public Section getParent() {
+      return parent;
+   }
+
+
+   /**
+    * @return {@link Section} the added, removed, moved, renamed or changed section, null for property changes.
+    */
+   public Section getSection() {
+      return section;
+   }
+
+
+   /**
+    * @return {@link Property} the added, removed or changed property, null for section changes.
+    */
+   public Property getProperty() {
+      return property;
+   }
+
+
+   /**
+    * @return {@link String} the name before a SECTION_RENAMED, null otherwise.
+    */
+   public String getOldName() {
+      return type == Type.SECTION_RENAMED ? (String) old : null;
+   }
+
+
+   /**
+    * @return {@link Section} the parent before a SECTION_MOVED, null otherwise.
+    */
+   public Section getOldParent() {
+      return type == Type.SECTION_MOVED ? (Section) old : null;
+   }
+
+
+   @Override
+   public String toString() {
+      String name = section != null ? section.getName() : property != null ? property.getName() : null;
+      return type + " " + name + (old instanceof String ? " (was " + old + ")" : "");
+   }
+}
@@ -0,0 +1,142 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.*;
+import org.slf4j.*;
+
+/**
+ * The listeners and the open batch of one section. Events are reported to the listeners of the section in which they
+ * occur and of all its ancestors. While a batch is open on one of these sections, the events are queued at the
+ * outermost batching section and delivered when its batch ends.
+ *
+ * @since 10.2026
+ */
+final class TreeEvents {
+
+   static Logger                      logger    = LoggerFactory.getLogger(TreeEvents.class);
+   private final Vector<TreeListener> listeners = new Vector<TreeListener>();
+   private int                        batchDepth = 0;
+   private Vector<TreeEvent>          queuedEvents;
+   private Vector<TreeListener[]>     queuedListeners;
+
+
+   boolean addListener(TreeListener listener) {
+      if (listeners.contains(listener)) {
+         return false;
+      }
+      return listeners.add(listener);
+   }
+
+
+   boolean removeListener(TreeListener listener) {
+      return listeners.remove(listener);
+   }
+
+
+   void beginBatch() {
+      if (batchDepth++ == 0) {
+         queuedEvents = new Vector<TreeEvent>();
+         queuedListeners = new Vector<TreeListener[]>();
+      }
+   }
+
+
+   /**
+    * Closes the batch and delivers the queued events, one call per listener.
+    *
+    * @return boolean false if no batch was open.
+    */
+   boolean endBatch() {
+      if (batchDepth == 0) {
+         return false;
+      }
+      if (--batchDepth > 0) {
+         return true;
+      }
+      LinkedHashMap<TreeListener, Vector<TreeEvent>> delivery = new LinkedHashMap<TreeListener, Vector<TreeEvent>>();
+      for (int i = 0; i < queuedEvents.size(); i++) {
+         for (TreeListener l : queuedListeners.get(i)) {
+            Vector<TreeEvent> events = delivery.get(l);
+            if (events == null) {
+               events = new Vector<TreeEvent>();
+               delivery.put(l, events);
+            }
+            events.add(queuedEvents.get(i));
+         }
+      }
+      queuedEvents = null;
+      queuedListeners = null;
+      for (Map.Entry<TreeListener, Vector<TreeEvent>> e : delivery.entrySet()) {
+         deliver(e.getKey(), e.getValue());
+      }
+      return true;
+   }
+
+
+   boolean isEmpty() {
+      return listeners.isEmpty() && batchDepth == 0;
+   }
+
+
+   /**
+    * Reports a change in the given section to the listeners of the section and its ancestors. Nothing is allocated
+    * unless one of them has listeners.
+    */
+   static void fire(Section origin, TreeEvent.Type type, Section section, Property property, Object old) {
+      Vector<TreeListener> targets = null;
+      TreeEvents batch = null;
+      for (Section s = origin; s != null; s = s.getParent()) {
+         TreeEvents events = s.events;
+         if (events != null) {
+            for (TreeListener l : events.listeners) {
+               if (targets == null) {
+                  targets = new Vector<TreeListener>();
+               }
+               if (!targets.contains(l)) {
+                  targets.add(l);
+               }
+            }
+            if (events.batchDepth > 0) {
+               batch = events;
+            }
+         }
+      }
+      if (targets == null) {
+         return;
+      }
+      TreeEvent event = new TreeEvent(type, origin, section, property, old);
+      if (batch != null) {
+         synchronized (batch) {
+            batch.queuedEvents.add(event);
+            batch.queuedListeners.add(targets.toArray(new TreeListener[targets.size()]));
+         }
+         return;
+      }
+      for (TreeListener l : targets) {
+         Vector<TreeEvent> single = new Vector<TreeEvent>(1);
+         single.add(event);
+         deliver(l, single);
+      }
+   }
+
+
+   private static void deliver(TreeListener listener, Vector<TreeEvent> events) {
+      try {
+         listener.treeChanged(events);
+      } catch (RuntimeException e) {
+         logger.error("TreeListener failed: ", e);
+      }
+   }
+}
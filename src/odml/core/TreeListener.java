@@ -0,0 +1,36 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.EventListener;
+import java.util.Vector;
+
+/**
+ * A {@link TreeListener} is notified about changes of a tree after it has been registered with
+ * {@link Section#addTreeListener(TreeListener)}. It receives the changes of the section it was registered with and of
+ * all sections below it.
+ *
+ * @since 10.2026
+ */
+public interface TreeListener extends EventListener {
+
+   /**
+    * Called after the tree has changed. Outside of a batch each change is delivered on its own. Changes made between
+    * {@link Section#beginBatch()} and {@link Section#endBatch()} are delivered together when the batch ends.
+    *
+    * @param events
+    *            {@link Vector} of {@link TreeEvent}s in the order in which the changes were made.
+    */
+   void treeChanged(Vector<TreeEvent> events);
+}
@@ -0,0 +1,240 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.*;
+import java.util.stream.IntStream;
+import org.slf4j.*;
+
+/**
+ * Implements {@link Section#optimizeTree()} in two phases.
+ * <p>
+ * First, linked sections drop the values that they share with the section they link to. A section is only compared
+ * to its link target after all sections linking to it have been compared to it, so the links are processed in waves
+ * along the reverse link order. Within a wave the link targets are independent and are compared in parallel, using
+ * hash sets of the values of each target property. The removals are applied afterwards.
+ * <p>
+ * Second, empty properties and empty sections are removed in a single post-order pass over the whole tree in which
+ * independent subtrees are visited in parallel. A section that only becomes empty because its subsections were
+ * removed is thus removed as well. Empty sections that are linked or include other content are kept.
+ *
+ * @since 10.2026
+ */
+class TreeOptimizer {
+
+   static Logger        logger = LoggerFactory.getLogger(TreeOptimizer.class);
+   private final Section root;
+
+
+   TreeOptimizer(Section root) {
+      this.root = root;
+   }
+
+
+   void optimize() {
+      // events are collected and delivered once, also because the removals run on several threads
+      root.beginBatch();
+      try {
+         removeLinkedValues();
+         removeEmpty();
+      } finally {
+         root.endBatch();
+      }
+   }
+
+
+   private void removeLinkedValues() {
+      final Vector<Section> linked = new Vector<Section>();
+      root.accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            if (section.isLinked()) {
+               linked.add(section);
+            }
+            return Result.CONTINUE;
+         }
+      });
+      if (linked.isEmpty()) {
+         return;
+      }
+      LinkIndex index = root.getLinkIndex();
+      IdentityHashMap<Section, Section> targets = new IdentityHashMap<Section, Section>();
+      IdentityHashMap<Section, Integer> pending = new IdentityHashMap<Section, Integer>();
+      for (Section s : linked) {
+         Section target = index.getTarget(s);
+         if (target != null) {
+            targets.put(s, target);
+            Integer count = pending.get(target);
+            pending.put(target, count == null ? 1 : count + 1);
+         }
+      }
+      Vector<Section> wave = new Vector<Section>();
+      for (Section s : linked) {
+         if (targets.containsKey(s) && !pending.containsKey(s)) {
+            wave.add(s);
+         }
+      }
+      int done = 0;
+      while (!wave.isEmpty()) {
+         compare(wave, targets);
+         done += wave.size();
+         Vector<Section> next = new Vector<Section>();
+         for (Section s : wave) {
+            Section target = targets.get(s);
+            int count = pending.get(target) - 1;
+            pending.put(target, count);
+            if (count == 0 && targets.containsKey(target)) {
+               next.add(target);
+            }
+         }
+         wave = next;
+      }
+      if (done < targets.size()) {
+         // sections on a cycle of links have no order, each is compared on its own
+         logger.warn("TreeOptimizer: cyclic links, " + (targets.size() - done) + " sections optimized unordered.");
+         for (Section s : linked) {
+            Integer count = pending.get(s);
+            if (targets.containsKey(s) && count != null && count > 0) {
+               compare(new Vector<Section>(Collections.singletonList(s)), targets);
+            }
+         }
+      }
+   }
+
+
+   /**
+    * Compares the sections of one wave to their link targets and removes the shared values.
+    */
+   private void compare(Vector<Section> wave, IdentityHashMap<Section, Section> targets) {
+      final IdentityHashMap<Section, Vector<Section>> byTarget = new IdentityHashMap<Section, Vector<Section>>();
+      for (Section s : wave) {
+         Vector<Section> temp = byTarget.get(targets.get(s));
+         if (temp == null) {
+            temp = new Vector<Section>();
+            byTarget.put(targets.get(s), temp);
+         }
+         temp.add(s);
+      }
+      final Section[] groups = byTarget.keySet().toArray(new Section[byTarget.size()]);
+      final boolean[][][][] plans = new boolean[groups.length][][][];
+      IntStream.range(0, groups.length).parallel().forEach(g -> {
+         HashMap<String, HashSet<String>> values = valueSets(groups[g]);
+         Vector<Section> linking = byTarget.get(groups[g]);
+         plans[g] = new boolean[linking.size()][][];
+         for (int i = 0; i < linking.size(); i++) {
+            plans[g][i] = plan(linking.get(i), values);
+         }
+      });
+      for (int g = 0; g < groups.length; g++) {
+         Vector<Section> linking = byTarget.get(groups[g]);
+         for (int i = 0; i < linking.size(); i++) {
+            apply(linking.get(i), plans[g][i]);
+         }
+      }
+   }
+
+
+   /**
+    * The non-empty values of each property of the target, case folded and by case folded property name.
+    */
+   private static HashMap<String, HashSet<String>> valueSets(Section target) {
+      HashMap<String, HashSet<String>> sets = new HashMap<String, HashSet<String>>();
+      for (int i = 0; i < target.propertyCount(); i++) {
+         Property p = target.getProperty(i);
+         String name = Section.foldCase(p.getName());
+         if (sets.containsKey(name)) {
+            continue;
+         }
+         HashSet<String> set = new HashSet<String>();
+         for (int j = 0; j < p.valueCount(); j++) {
+            if (!p.valueAt(j).isEmpty()) {
+               set.add(Section.foldCase(p.valueAt(j).getComparableContent().toString()));
+            }
+         }
+         sets.put(name, set);
+      }
+      return sets;
+   }
+
+
+   /**
+    * Marks the non-empty values of each property of the section that the target has as well.
+    *
+    * @return the marks by property and value index, null for properties the target does not have.
+    */
+   private static boolean[][] plan(Section section, HashMap<String, HashSet<String>> targetValues) {
+      boolean[][] plan = new boolean[section.propertyCount()][];
+      for (int i = 0; i < plan.length; i++) {
+         Property p = section.getProperty(i);
+         HashSet<String> set = targetValues.get(Section.foldCase(p.getName()));
+         if (set == null || set.isEmpty()) {
+            continue;
+         }
+         plan[i] = new boolean[p.valueCount()];
+         for (int j = 0; j < p.valueCount(); j++) {
+            plan[i][j] = !p.valueAt(j).isEmpty() && set.contains(Section.foldCase(p.valueAt(j)
+                  .getComparableContent().toString()));
+         }
+      }
+      return plan;
+   }
+
+
+   private static void apply(Section section, boolean[][] plan) {
+      for (int i = section.propertyCount() - 1; i >= 0; i--) {
+         Property p = section.getProperty(i);
+         if (i < plan.length && plan[i] != null) {
+            for (int j = Math.min(p.valueCount(), plan[i].length) - 1; j >= 0; j--) {
+               if (plan[i][j]) {
+                  p.removeValue(j);
+               }
+            }
+         }
+         if (p.valueCount() == 0) {
+            section.removeProperty(i);
+         }
+      }
+   }
+
+
+   /**
+    * Removes empty properties and, bottom-up, empty sections. Nothing is removed from terminology sections.
+    */
+   private void removeEmpty() {
+      root.acceptParallel(new SectionVisitor() {
+
+         @Override
+         public Result postVisit(Section section) {
+            if (section.isTerminology()) {
+               return Result.CONTINUE;
+            }
+            for (int i = section.propertyCount() - 1; i >= 0; i--) {
+               Property p = section.getProperty(i);
+               p.removeEmptyValues();
+               if (p.isEmpty()) {
+                  section.removeProperty(i);
+               }
+            }
+            for (int i = section.sectionCount() - 1; i >= 0; i--) {
+               Section child = section.getSection(i);
+               if (child.isEmpty() && !child.isLinked() && child.getInclude() == null) {
+                  section.removeSection(i);
+               }
+            }
+            return Result.CONTINUE;
+         }
+      });
+   }
+}
@@ -0,0 +1,144 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.net.URL;
+import java.util.*;
+import java.util.stream.IntStream;
+import odml.util.TerminologyManager;
+import org.slf4j.*;
+
+/**
+ * Implements {@link Section#validateTree()}. A first pass over the whole tree determines the repository of each
+ * section and looks up its terminology. Lookups are memoized per repository and type, including failed ones, and the
+ * properties of each terminology section are hashed by name. The sections are then validated in parallel; validating a
+ * section only changes the section and its properties. Issues go to a {@link ValidationReport}, or are logged if there
+ * is none.
+ *
+ * @since 10.2026
+ */
+class TreeValidator {
+
+   static Logger                                       logger        = LoggerFactory.getLogger(TreeValidator.class);
+   private final Section                               root;
+   private final HashMap<String, Terminology>          terminologies = new HashMap<String, Terminology>();
+   private final IdentityHashMap<Section, Terminology> known         = new IdentityHashMap<Section, Terminology>();
+
+
+   TreeValidator(Section root) {
+      this.root = root;
+   }
+
+
+   void validate(final ValidationReport report) {
+      final Vector<Section> sections = new Vector<Section>();
+      final Vector<Terminology> found = new Vector<Terminology>();
+      final IdentityHashMap<Section, URL> repositories = new IdentityHashMap<Section, URL>();
+      root.accept(new SectionVisitor() {
+
+         @Override
+         public Result preVisit(Section section) {
+            URL repository = section.getOwnRepository();
+            if (repository == null && section.getParent() != null) {
+               repository = repositories.get(section.getParent());
+            }
+            repositories.put(section, repository);
+            Terminology t = lookup(section, repository);
+            if (t == null) {
+               if (section.getType() != null) {
+                  ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.NO_TERMINOLOGY,
+                        section, null, null, null, section.getType()));
+               }
+            } else {
+               sections.add(section);
+               found.add(t);
+            }
+            return report != null && report.isStopped() ? Result.TERMINATE : Result.CONTINUE;
+         }
+      });
+      // changes are delivered once, also because sections are validated on several threads
+      root.beginBatch();
+      try {
+         IntStream.range(0, sections.size()).parallel().forEach(i -> {
+            if (report == null || !report.isStopped()) {
+               validate(sections.get(i), found.get(i), report);
+            }
+         });
+      } finally {
+         root.endBatch();
+      }
+   }
+
+
+   private Terminology lookup(Section section, URL repository) {
+      Section term = section.getTerminology();
+      if (term != null) {
+         Terminology t = known.get(term);
+         if (t == null) {
+            t = new Terminology(term);
+            known.put(term, t);
+         }
+         return t;
+      }
+      if (repository == null || section.getType() == null) {
+         return null;
+      }
+      String key = repository.getProtocol() + "://" + repository.getAuthority() + repository.getPath() + "#"
+            + section.getType();
+      if (!terminologies.containsKey(key)) {
+         term = TerminologyManager.instance().loadTerminology(repository, section.getType());
+         Terminology t = term == null ? null : known.get(term);
+         if (term != null && t == null) {
+            t = new Terminology(term);
+            known.put(term, t);
+         }
+         terminologies.put(key, t);
+      }
+      Terminology t = terminologies.get(key);
+      if (t != null) {
+         section.setTerminology(t.section);
+      }
+      return t;
+   }
+
+
+   private static void validate(Section section, Terminology terminology, ValidationReport report) {
+      section.validateSection(report);
+      for (int i = 0; i < section.propertyCount(); i++) {
+         Property p = section.getProperty(i);
+         Property termProp = terminology.properties.get(Section.foldCase(p.getName()));
+         if (termProp != null) {
+            p.validate(termProp, report);
+         }
+      }
+   }
+
+
+   /**
+    * A terminology section and its properties by case-folded name.
+    */
+   private static class Terminology {
+
+      final Section                   section;
+      final HashMap<String, Property> properties = new HashMap<String, Property>();
+
+
+      Terminology(Section section) {
+         this.section = section;
+         for (int i = section.propertyCount() - 1; i >= 0; i--) {
+            properties.put(Section.foldCase(section.getProperty(i).getName()), section.getProperty(i));
+         }
+      }
+   }
+}
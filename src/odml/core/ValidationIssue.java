@@ -0,0 +1,172 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+
+/**
+ * A {@link ValidationIssue} is a single finding of the validation against a terminology. It only refers to the
+ * affected section, property or value; its path and message are put together when they are requested.
+ *
+ * @since 10.2026
+ */
+public final class ValidationIssue {
+
+   /**
+    * How serious an issue is.
+    */
+   public enum Severity {
+      /** Missing information was completed from the terminology. */
+      INFO,
+      /** The element deviates from the terminology. */
+      WARNING
+   }
+
+   /**
+    * The rule an element was checked against.
+    */
+   public enum Rule {
+      NO_TERMINOLOGY(Severity.WARNING, "no terminology found for the section type"),
+      DEFINITION_ADDED(Severity.INFO, "definition added from the terminology"),
+      DEFINITION_DEVIATES(Severity.WARNING, "definition deviates from the terminology, kept original"),
+      MAPPING_ADDED(Severity.INFO, "mapping added from the terminology"),
+      MAPPING_DEVIATES(Severity.WARNING, "mapping deviates from the terminology, kept original"),
+      REPOSITORY_ADDED(Severity.INFO, "repository added from the terminology"),
+      DEPENDENCY_MISSING(Severity.WARNING, "the sibling property the terminology requests is missing"),
+      DEPENDENCY_VALUE_MISSING(Severity.WARNING, "the sibling property does not contain the requested value"),
+      TYPE_ADDED(Severity.INFO, "type added from the terminology"),
+      TYPE_DEVIATES(Severity.WARNING, "type deviates from the terminology, kept original"),
+      TYPE_INCOMPATIBLE(Severity.WARNING, "value is not compatible with the type of the terminology"),
+      UNIT_ADDED(Severity.INFO, "unit added from the terminology"),
+      UNIT_DEVIATES(Severity.WARNING, "unit deviates from the terminology, kept original");
+
+      private final Severity severity;
+      private final String   message;
+
+
+      Rule(Severity severity, String message) {
+         this.severity = severity;
+         this.message = message;
+      }
+
+
+      public Severity getSeverity() {
+         return severity;
+      }
+
+
+      public String getMessage() {
+         return message;
+      }
+   }
+
+   private final Rule     rule;
+   private final Section  section;
+   private final Property property;
+   private final Value    value;
+   private final Object   expected, actual;
+
+
+   ValidationIssue(Rule rule, Section section, Property property, Value value, Object expected, Object actual) {
+      this.rule = rule;
+      this.section = section;
+      this.property = property;
+      this.value = value;
+      this.expected = expected;
+      this.actual = actual;
+   }
+
+
+   /**
+    * @return {@link Rule} the violated rule.
+    */
+   public Rule getRule() {
+      return rule;
+   }
+
+
+   /**
+    * @return {@link Severity} the severity of the rule.
+    */
+   public Severity getSeverity() {
+      return rule.getSeverity();
+   }
+
+
+   /**
+    * @return {@link Section} the affected section, null if the property was not part of a tree.
+    */
+   public Section getSection() {
+      return section;
+   }
+
+
+   /**
+    * @return {@link Property} the affected property, null for issues of a section.
+    */
+   public Property getProperty() {
+      return property;
+   }
+
+
+   /**
+    * @return {@link Object} what the terminology defines, may be null.
+    */
+   public Object getExpected() {
+      return expected;
+   }
+
+
+   /**
+    * @return {@link Object} what the element contained before the validation, may be null.
+    */
+   public Object getActual() {
+      return actual;
+   }
+
+
+   /**
+    * Returns the path of the affected element, e.g. '/a/b', '/a/b#prop' or '/a/b#prop[i]' for the i-th value.
+    *
+    * @return {@link String} the path.
+    */
+   public String getPath() {
+      StringBuilder path = new StringBuilder();
+      if (section != null) {
+         path.append(section.getPath());
+      }
+      if (property != null) {
+         path.append('#').append(property.getName());
+         if (value != null) {
+            for (int i = 0; i < property.valueCount(); i++) {
+               if (property.getWholeValue(i) == value) {
+                  path.append('[').append(i).append(']');
+                  break;
+               }
+            }
+         }
+      }
+      return path.length() == 0 ? "/" : path.toString();
+   }
+
+
+   @Override
+   public String toString() {
+      StringBuilder text = new StringBuilder();
+      text.append(rule.getSeverity()).append(' ').append(getPath()).append(": ").append(rule.getMessage());
+      if (expected != null || actual != null) {
+         text.append(" (expected: ").append(expected).append(", actual: ").append(actual).append(')');
+      }
+      return text.toString();
+   }
+}
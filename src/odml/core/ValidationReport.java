@@ -0,0 +1,168 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.Vector;
+import org.slf4j.Logger;
+
+/**
+ * A {@link ValidationReport} collects the {@link ValidationIssue}s found by validating a tree against its
+ * terminologies, e.g.
+ *
+ * <pre>
+ * ValidationReport report = root.validateTree(new ValidationReport(100, false));
+ * if (!report.isValid()) {
+ *    System.out.println(report);
+ * }
+ * </pre>
+ *
+ * The validation stops once the report is full, or with the first warning if the report is fail-fast. Issues are
+ * added concurrently when the tree is validated in parallel.
+ *
+ * @since 10.2026
+ */
+public class ValidationReport {
+
+   private final Vector<ValidationIssue> issues    = new Vector<ValidationIssue>();
+   private final int                     maxIssues;
+   private final boolean                 failFast;
+   private volatile boolean              stopped   = false;
+   private boolean                       truncated = false;
+
+
+   /**
+    * Creates a report without limit that collects all issues.
+    */
+   public ValidationReport() {
+      this(Integer.MAX_VALUE, false);
+   }
+
+
+   /**
+    * Creates a report.
+    *
+    * @param maxIssues
+    *            int the number of issues after which the validation stops.
+    * @param failFast
+    *            boolean whether the validation stops at the first warning.
+    */
+   public ValidationReport(int maxIssues, boolean failFast) {
+      this.maxIssues = Math.max(1, maxIssues);
+      this.failFast = failFast;
+   }
+
+
+   synchronized void add(ValidationIssue issue) {
+      if (stopped) {
+         truncated = true;
+         return;
+      }
+      issues.add(issue);
+      if (issues.size() >= maxIssues || (failFast && issue.getSeverity() == ValidationIssue.Severity.WARNING)) {
+         stopped = true;
+      }
+   }
+
+
+   /**
+    * Adds the issue to the report or, without a report, logs it if the level of its severity is enabled. Messages are
+    * only built when they are logged.
+    */
+   static void report(ValidationReport report, Logger logger, ValidationIssue issue) {
+      if (report != null) {
+         report.add(issue);
+      } else if (issue.getSeverity() == ValidationIssue.Severity.WARNING) {
+         if (logger.isWarnEnabled()) {
+            logger.warn(issue.toString());
+         }
+      } else if (logger.isInfoEnabled()) {
+         logger.info(issue.toString());
+      }
+   }
+
+
+   /**
+    * @return {@link Vector} of all collected {@link ValidationIssue}s in the order they were found.
+    */
+   public Vector<ValidationIssue> getIssues() {
+      return new Vector<ValidationIssue>(issues);
+   }
+
+
+   /**
+    * Returns the issues of one severity.
+    *
+    * @param severity
+    *            {@link ValidationIssue.Severity} the severity.
+    * @return {@link Vector} of {@link ValidationIssue}s, may be empty.
+    */
+   public Vector<ValidationIssue> getIssues(ValidationIssue.Severity severity) {
+      Vector<ValidationIssue> temp = new Vector<ValidationIssue>();
+      synchronized (this) {
+         for (ValidationIssue i : issues) {
+            if (i.getSeverity() == severity) {
+               temp.add(i);
+            }
+         }
+      }
+      return temp;
+   }
+
+
+   /**
+    * @return boolean true if no warnings were found. Completions from the terminology are not counted.
+    */
+   public boolean isValid() {
+      return getIssues(ValidationIssue.Severity.WARNING).isEmpty();
+   }
+
+
+   /**
+    * @return boolean true if the validation stopped early because the report is full or fail-fast.
+    */
+   public boolean isStopped() {
+      return stopped;
+   }
+
+
+   /**
+    * @return boolean true if further issues were found after the validation was stopped and were dropped.
+    */
+   public synchronized boolean isTruncated() {
+      return truncated;
+   }
+
+
+   /**
+    * Logs all collected issues with the level of their severity.
+    *
+    * @param logger
+    *            {@link Logger} the logger.
+    */
+   public void log(Logger logger) {
+      for (ValidationIssue i : getIssues()) {
+         report(null, logger, i);
+      }
+   }
+
+
+   @Override
+   public String toString() {
+      StringBuilder text = new StringBuilder();
+      for (ValidationIssue i : getIssues()) {
+         text.append(i).append('\n');
+      }
+      return text.toString();
+   }
+}
@@ -19,9 +19,8 @@ package odml.core;
  */
 import java.io.*;
 import java.net.*;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.zip.CRC32;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.swing.tree.TreeNode;
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.*;
@@ -40,6 +39,8 @@ import org.slf4j.*;
  * <li>encoder - optional. If binary content is included in the {@link Value}, indicate the encoder used in the form.</li>
  * <li>checksum - optional. The checksum of the file included in the {@link Value}. State the checksum in the form algorithm$checksum (e.g. crc32$...).</li>
  * </ol> 
+ * To keep the many plain values of large documents small, units and types are shared between values and the rarely
+ * used fields (filename, definition, reference, encoder and checksum) are only allocated when one of them is set.
  *   
  * @since 06.2010
  * @author Jan Grewe, Christine Seitz
@@ -49,15 +50,22 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
 
    static Logger                         logger           = LoggerFactory.getLogger(Value.class);
    private static final long             serialVersionUID = 147L;
-   private String                        unit             = null, type = null, reference = null;
-   private Object                        content, uncertainty;
-   private String                        definition, filename, checksum, encoder;
+   private String                        unit             = null, type = null;
+   /**
+    * Volatile because lazy values convert their text on first access, possibly in a reader thread of a shared
+    * snapshot or store.
+    */
+   private volatile Object               content;
+   private Object                        uncertainty;
+   private String                        text;
+   private Extras                        extras;
    private Property                      parent;
-   private final static SimpleDateFormat dateFormat       = new SimpleDateFormat("yyyy-MM-dd");
-   private final static SimpleDateFormat datetimeFormat   = new SimpleDateFormat(
-                                                                "yyyy-MM-dd hh:mm:ss");
-   private final static SimpleDateFormat timeFormat       = new SimpleDateFormat("hh:mm:ss");
-   private final static String           regExNTuple      = "(?i)[0-9]{1,};[0-9]{1,}";
+   private final static int              maxShared        = 4096, maxSharedLength = 64;
+   private final static ConcurrentHashMap<String, String> shared = new ConcurrentHashMap<String, String>();
+   /**
+    * The encoder of values whose content is written as the key of a {@link BlobStore}.
+    */
+   static final String                   BLOB_ENCODER     = "blob";
 
 
    //*****************************************************************
@@ -138,19 +146,30 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
    protected Value(Object content, String unit, Object uncertainty, String type, String filename,
                    String definition, String reference, String encoder, String checksum)
                                                                                         throws Exception {
+      this(content, unit, uncertainty, type, filename, definition, reference, encoder, checksum, false);
+   }
+
+
+   /**
+    * Creates a value that, if lazy, keeps text content as it is and converts it on first access. Until the content
+    * or type is changed the text is written back instead of formatting the content again.
+    */
+   Value(Object content, String unit, Object uncertainty, String type, String filename, String definition,
+         String reference, String encoder, String checksum, boolean lazy) throws Exception {
       if (type == null || type.isEmpty()) {
          type = inferOdmlType(content);
       }
       this.content = null;
       this.uncertainty = null;
-      this.filename = "";
-      this.definition = "";
-      this.reference = "";
-      this.checksum = "";
-      this.encoder = "";
-      this.type = type;
-      if (type.equalsIgnoreCase("binary")) {
+      this.type = share(type);
+      OdmlType odmlType = OdmlType.resolve(type);
+      if (odmlType == OdmlType.BINARY) {
          this.content = encodeContent(content);
+      } else if (lazy && odmlType != null && odmlType.isParsed() && content instanceof String
+            && !((String) content).isEmpty()) {
+         // content == text marks the conversion as pending, converted content is never a String
+         this.text = (String) content;
+         this.content = this.text;
       } else {
          this.content = checkDatatype(content, type);
       }
@@ -165,23 +184,151 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
          }
       }
       if (filename != null && !filename.isEmpty()) {
-         this.filename = filename;
+         extras().filename = filename;
       }
-      if (definition == null) {
-         this.definition = "";
-      } else {
-         this.definition = definition;
+      if (definition != null && !definition.isEmpty()) {
+         extras().definition = definition;
       }
-      if (reference == null) {
-         this.reference = "";
-      } else {
-         this.reference = reference;
+      if (reference != null && !reference.isEmpty()) {
+         extras().reference = reference;
+      }
+      // content encoded from a file brings its own encoder and checksum
+      if (encoder != null && !encoder.isEmpty() && getEncoder().isEmpty()) {
+         extras().encoder = encoder;
+      }
+      if (checksum != null && !checksum.isEmpty() && getChecksum().isEmpty()) {
+         extras().checksum = checksum;
       }
       if (unit == null) {
          this.unit = "";
       } else {
-         this.unit = unit;
+         this.unit = share(unit);
+      }
+   }
+
+
+   private Value() {
+   }
+
+
+   /**
+    * Creates a value from content that has already been checked, e.g. when unpacking {@link PackedValues}.
+    */
+   static Value packed(Object content, String unit, String type) {
+      Value value = new Value();
+      value.content = content;
+      value.uncertainty = "";
+      value.unit = unit;
+      value.type = type;
+      return value;
+   }
+
+
+   /**
+    * The rarely used fields of a value. Values without any of them share no record at all and report empty strings.
+    */
+   private static final class Extras implements Serializable, Cloneable {
+
+      private static final long serialVersionUID = 1L;
+      private String            filename         = "", definition = "", reference = "", checksum = "",
+            encoder = "";
+
+
+      @Override
+      protected Extras clone() {
+         try {
+            return (Extras) super.clone();
+         } catch (CloneNotSupportedException e) {
+            throw new InternalError(e.toString());
+         }
+      }
+   }
+
+
+   /**
+    * The key of binary content that has been moved into a {@link BlobStore}, and its bytes if the store handed them
+    * out to be held by the value, see {@link BlobStore#hold(InputStream)}.
+    */
+   private static final class Blob implements Serializable {
+
+      private static final long serialVersionUID = 1L;
+      private final BlobStore   store;
+      private final String      key;
+      private final byte[]      bytes;
+
+
+      Blob(BlobStore store, BlobStore.Handle handle) {
+         this.store = store;
+         this.key = handle.getKey();
+         this.bytes = handle.getBytes();
+      }
+
+
+      InputStream open() throws IOException {
+         return bytes != null ? new ByteArrayInputStream(bytes) : store.open(key);
+      }
+
+
+      String encode() throws IOException {
+         if (bytes != null) {
+            return java.util.Base64.getEncoder().encodeToString(bytes);
+         }
+         InputStream in = open();
+         try {
+            return java.util.Base64.getEncoder().encodeToString(in.readAllBytes());
+         } finally {
+            in.close();
+         }
+      }
+
+
+      /**
+       * Content of a store that cannot be serialized is written as its Base64 encoding, i.e. like content that was
+       * never moved into a store.
+       */
+      private Object writeReplace() throws ObjectStreamException {
+         if (store instanceof Serializable) {
+            return this;
+         }
+         try {
+            return encode();
+         } catch (IOException e) {
+            throw new NotSerializableException("Cannot read binary content from " + store + ": "
+                  + e.getLocalizedMessage());
+         }
+      }
+   }
+
+
+   private Extras extras() {
+      if (extras == null) {
+         extras = new Extras();
       }
+      return extras;
+   }
+
+
+   /**
+    * Returns the shared instance of a unit or type name, so that the many values using e.g. 'mV' or 'float' do not
+    * each keep their own copy. Only short strings are shared and the table is bounded, unusual strings are kept as
+    * they are.
+    * 
+    * @param text {@link String} the unit or type.
+    * @return {@link String} an equal string, possibly shared.
+    */
+   static String share(String text) {
+      if (text == null || text.length() > maxSharedLength) {
+         return text;
+      }
+      String temp = shared.get(text);
+      if (temp != null) {
+         return temp;
+      }
+      if (shared.size() >= maxShared) {
+         return text;
+      }
+      temp = shared.putIfAbsent(text, text);
+      return temp == null ? text : temp;
    }
 
 
@@ -235,202 +382,27 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
          logger.info("Found empty content!!!");
          return null;
       }
-      if (type.matches("(?i)int.*")) {
-         if (content instanceof java.lang.Integer) {
-            return content;
-         } else if (content instanceof java.lang.String) {
-            if (((java.lang.String) content).contains(".") || ((String) content).contains(",")) {
-               int index = ((String) content).indexOf(".");
-               if (index == -1)
-                  index = ((String) content).indexOf(",");
-               content = ((String) content).substring(0, index);
-            }
-            return Integer.parseInt((String) content);
-         } else if (content instanceof Number) {
-            return ((Number) content).intValue();
-         } else {
-            logger.error("Cannot convert value of class " + content.getClass().getSimpleName()
-                  + " to requested type: " + type);
-            return null;
-         }
-      } else if (type.matches("(?i)float.*")) {
-         if (content instanceof Number) {
-            return ((Number) content).floatValue();
-         } else if (content instanceof java.lang.String) { // float could be masked as string
-            return Float.parseFloat((String) content);
-         } else {
-            logger.error("Cannot convert value of class " + content.getClass().getSimpleName()
-                  + " to requested type " + type);
-            return null;
-         }
-      } else if (type.matches("(?i)string") || type.matches("(?i)text")) {
-         logger.debug("type specified:\tstring");
-         if (content instanceof String) {
-            return content;
-         } else if (content instanceof Character) {
-            return ((Character) content).toString();
-         } else {
-            logger.error("Error converting content of class: "
-                  + content.getClass().getSimpleName() + " to requested type: " + type);
-            return null;
-         }
-      } else if (type.matches("(?i)n-tuple")) {
-         if (content instanceof String && ((String) content).matches(regExNTuple)) {
-            return content;
-         } else {
-            logger.error("Value does not match the n-tuple definition (regExp: "
-                  + regExNTuple + ")!");
-            return null;
-         }
-      } else if (type.matches("(?i)date")) {
-         if (content instanceof java.util.Date) {
-            try {
-               Date date = dateFormat.parse(dateFormat.format(content));
-               return date;
-            } catch (Exception e) {
-               logger.error(e.getMessage());
-            }
-         } else if (content instanceof java.lang.String) {
-            try {
-               Date date = dateFormat.parse((String) content);
-               return date;
-            } catch (Exception e) {
-               logger.error("Cannot convert passed String : " + content
-                     + " to a date value!");
-               return null;
-            }
-         } else {
-            logger.error("Cannot convert passed object of class: "
-                  + content.getClass().getSimpleName()
-                  + " to a date value!");
-            return null;
-         }
-      } else if (type.matches("(?i)time")) {
-         if (content instanceof java.util.Date) {
-            try {
-               Date date = timeFormat.parse(timeFormat.format(content));
-               return date;
-            } catch (Exception e) {
-               logger.error(e.getMessage());
-            }
-         } else if (content instanceof java.lang.String) {
-            try {
-               Date date = timeFormat.parse((String) content);
-               return date;
-            } catch (Exception e) {
-               logger.error(e.getLocalizedMessage());
-            }
-         } else {
-            logger.error("Cannot convert passed object of class: "
-                  + content.getClass().getSimpleName()
-                  + " to a time value!");
-            return null;
-         }
-      } else if (type.matches("(?i)datetime")) {
-         if (content instanceof java.util.Date) {
-            try {
-               Date date = datetimeFormat.parse(datetimeFormat.format(content));
-               return date;
-            } catch (Exception e) {
-               logger.error(e.getLocalizedMessage());
-            }
-         } else if (content instanceof java.lang.String) {
-            try {
-               Date date = datetimeFormat.parse((String) content);
-               return date;
-            } catch (Exception e) {
-               logger.error(e.getLocalizedMessage());
-            }
-         } else {
-            logger.error("Cannot convert passed object of class: "
-                  + content.getClass().getSimpleName()
-                  + " to a datetime value!");
-            return null;
-         }
-      } else if (type.matches("(?i)bool.*")) {
-         if (content instanceof java.lang.Boolean) {
-            return content;
-         } else if (content instanceof java.lang.String) {
-            return Boolean.parseBoolean((String) content);
-         } else {
-            logger.error("Cannot convert object of class: "
-                  + content.getClass().getSimpleName() + " to a " + type + ": value!");
-            return null;
-         }
-      } else if (type.matches("(?i)URL")) {
-         if (content instanceof java.net.URL) {
-            return content;
-         } else if (content instanceof java.lang.String) {
-            try {
-               URL parsedUrl = new URL((String) content);
-               return parsedUrl;
-            } catch (MalformedURLException e) {
-               logger.error(e.getLocalizedMessage());
-            }
-         } else {
-            logger.error("Could not convert " + content.getClass().getSimpleName()
-                  + " to required type: " + type);
-            return null;
-         }
-      } else if (type.matches("(?i)binary")) {
-         if (content instanceof java.lang.String || content instanceof File
-               || content instanceof URL || content instanceof URI) {
-            return content;
-         } else {
-            logger.error("Binary (String), File, URL, or URI content expected, "
-                  + content.getClass().getSimpleName() + " found!");
-            return null;
-         }
-      } else if (type.matches("(?i)person")) {
-         if (!(content instanceof java.lang.String)) {
-            logger.error("Expect a person to be of class expected, not " + content.getClass());
-            return null;
-         } else {
-            return content;
-         }
-      } else {
-         type = "string";
+      OdmlType odmlType = OdmlType.resolve(type);
+      if (odmlType == null) {
          logger.warn("type unknown:\thandling as 'string':\tcorrect");
          return content;
       }
-      return null;
+      if (odmlType == OdmlType.STRING || odmlType == OdmlType.TEXT) {
+         logger.debug("type specified:\tstring");
+      }
+      return odmlType.convert(content);
    }
 
 
    /**
-    * Checks a {@link String} in more detail, and returns the odml data type.
+    * Checks a {@link String} in more detail, and returns the odml data type. See {@link OdmlType#infer(String)} for
+    * the recognized formats.
     * 
     * @param content {@link String}
     * @return {@link String}: the odml type that matches best.
     */
    protected static String inferDatatypeFromString(String content) {
-      content = content.trim();
-      //      String regExDate = "[0-9]{4}-(((([0][13-9])|([1][0-2]))-(([0-2][0-9])|([3][01])))|(([0][2]-[0-2][0-9])))";
-      ////      String regExDateGeneral = "[0-9]{4}-[0-9]{2}-[0-9]{2}";
-      //      String regExTime = "(([01][0-9])|([2][0-4])):(([0-5][0-9])|([6][0])):(([0-5][0-9])|([6][0]))"; // for time
-      ////      String regExTimeGeneral = "[0-9]{2}:[0-9]{2}:[0-9]{2}";
-      //      String regExInt = "^[+-]?[0-9]+$";
-      //      String regExFloat = "^[+-]?[0-9]*\\.[0-9]+$";
-      //      String regExBool = "(true)|(false)|1|0";
-      //      String regExDatetimeGeneral = "[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2}";
-
-      HashMap<String, String> regExpMap = new HashMap<String, String>();
-      regExpMap.put("date",
-            "[0-9]{4}-(((([0][13-9])|([1][0-2]))-(([0-2][0-9])|([3][01])))|(([0][2]-[0-2][0-9])))");
-      regExpMap.put("datetime", "[0-9]{4}-[0-9]{2}-[0-9]{2} [0-9]{2}:[0-9]{2}:[0-9]{2}");
-      regExpMap.put("time",
-            "(([01][0-9])|([2][0-4])):(([0-5][0-9])|([6][0])):(([0-5][0-9])|([6][0]))");
-      regExpMap.put("int", "^[+-]?[0-9]+$");
-      regExpMap.put("float", "^[+-]?[0-9]*\\.[0-9]+$");
-      regExpMap.put("boolean", "(true)|(false)|1|0");
-      regExpMap.put("n-tuple", regExNTuple);
-      Iterator<String> iter = regExpMap.keySet().iterator();
-      while (iter.hasNext()) {
-         String key = iter.next();
-         if (content.toLowerCase().matches(regExpMap.get(key)))
-            return key;
-      }
-      return "string";
+      return OdmlType.infer(content).getName();
    }
 
 
@@ -501,20 +473,276 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
    }
 
 
+   /**
+    * Tells the associated property that the content hash of this value changed.
+    */
+   private void changed() {
+      if (parent != null) {
+         parent.changed();
+      }
+   }
+
+
    // value
    protected void setContent(Object content) {
       this.content = content;
+      this.text = null;
+      changed();
    }
 
 
    protected Object getContent() {
-      return this.content;
+      Object temp = content;
+      if (temp != null && temp == text) {
+         try {
+            temp = checkDatatype(text, type);
+         } catch (Exception e) {
+            logger.error("Cannot convert '" + text + "' to a " + type + " value: " + e.getLocalizedMessage());
+            temp = null;
+         }
+         content = temp;
+      } else if (temp instanceof Blob) {
+         // stored binary content is encoded on each access, it is not kept in the heap
+         try {
+            temp = ((Blob) temp).encode();
+         } catch (IOException e) {
+            logger.error("Cannot read binary content from " + ((Blob) temp).store + ": " + e.getLocalizedMessage());
+            temp = null;
+         }
+      }
+      return temp;
+   }
+
+
+   /**
+    * Returns the content for comparing and hashing values. Binary content that has been moved into a {@link BlobStore}
+    * is represented by its key instead of being read and encoded; '$' is no Base64 character, so the key cannot be
+    * mistaken for content.
+    *
+    * @return {@link Object} the content, or the key of stored binary content.
+    */
+   Object getComparableContent() {
+      Object temp = content;
+      return temp instanceof Blob ? BLOB_ENCODER + "$" + ((Blob) temp).key : getContent();
+   }
+
+
+   /**
+    * Moves Base64 encoded binary content into the store. Afterwards the value only holds the key of the content.
+    *
+    * @param store
+    *            {@link BlobStore}: the store.
+    * @return boolean true if the content was moved, false if the value is not binary or has no content.
+    */
+   boolean store(BlobStore store) {
+      if (!(content instanceof String) || ((String) content).isEmpty()
+            || OdmlType.resolve(type) != OdmlType.BINARY || BLOB_ENCODER.equals(getEncoder())) {
+         return false;
+      }
+      try {
+         InputStream in = decoder(((String) content));
+         content = new Blob(store, store.hold(in));
+         return true;
+      } catch (IOException e) {
+         logger.error("Cannot store binary content in " + store + ": " + e.getLocalizedMessage());
+         return false;
+      }
+   }
+
+
+   /**
+    * @return {@link String} the key of binary content that has been moved into a persistent {@link BlobStore}, null
+    *         otherwise. Only such keys may be written as references, see {@link BlobStore#isPersistent()}.
+    */
+   String getBlobKey() {
+      Object temp = content;
+      return temp instanceof Blob && ((Blob) temp).store.isPersistent() ? ((Blob) temp).key : null;
+   }
+
+
+   /**
+    * Replaces a reference written with {@link Writer#setBlobReferences(boolean)} by the content it refers to.
+    *
+    * @param store
+    *            {@link BlobStore}: the store holding the content, may be null.
+    * @return boolean true if the content was found, false if the value is no reference or its content is not stored.
+    */
+   boolean resolveBlob(BlobStore store) {
+      if (!BLOB_ENCODER.equals(getEncoder()) || !(content instanceof String)) {
+         return false;
+      }
+      String key = ((String) content).trim();
+      BlobStore.Handle handle = store == null ? null : store.lookup(key);
+      if (handle == null) {
+         logger.error("Content " + key + " is not available" + (store == null ? ", no blob store set!" : " in " + store));
+         return false;
+      }
+      content = new Blob(store, handle);
+      setEncoder("Base64");
+      return true;
+   }
+
+
+   /**
+    * Verifies the checksum of binary content in one pass over the decoded bytes.
+    *
+    * @return boolean false if the content does not match its checksum or cannot be read, true otherwise, also if
+    *         there is no checksum or its algorithm is not supported.
+    */
+   boolean verifyChecksum() {
+      String checksum = getChecksum();
+      String algorithm = Checksum.algorithmOf(checksum);
+      if (algorithm == null || !Checksum.isSupported(algorithm) || content == null
+            || OdmlType.resolve(type) != OdmlType.BINARY || BLOB_ENCODER.equals(getEncoder())) {
+         return true;
+      }
+      try {
+         InputStream in = openBinary();
+         try {
+            String actual = Checksum.compute(algorithm, in);
+            if (Checksum.matches(checksum, actual)) {
+               return true;
+            }
+            logger.error("Checksum mismatch: expected " + checksum + " but found " + actual);
+         } finally {
+            in.close();
+         }
+      } catch (IOException e) {
+         logger.error("Cannot verify checksum: " + e.getLocalizedMessage());
+      }
+      return false;
+   }
+
+
+   /**
+    * Computes the checksum of binary content with the given algorithm and stores it.
+    *
+    * @param algorithm
+    *            {@link String}: 'CRC32C' or 'SHA-256'.
+    * @return boolean true if the checksum was stored.
+    */
+   boolean updateChecksum(String algorithm) {
+      if (!Checksum.isSupported(algorithm) || content == null || OdmlType.resolve(type) != OdmlType.BINARY) {
+         return false;
+      }
+      try {
+         InputStream in = openBinary();
+         try {
+            setChecksum(Checksum.compute(algorithm, in));
+            return true;
+         } finally {
+            in.close();
+         }
+      } catch (IOException e) {
+         logger.error("Cannot compute checksum: " + e.getLocalizedMessage());
+         return false;
+      }
+   }
+
+
+   /**
+    * @return {@link InputStream} the decoded bytes of binary content, read from the store if the content was
+    *         stored, or null if the value has no content.
+    * @throws IOException
+    */
+   InputStream openBinary() throws IOException {
+      if (content instanceof Blob) {
+         return ((Blob) content).open();
+      } else if (content == null) {
+         return null;
+      }
+      return decoder(content.toString());
+   }
+
+
+   private static InputStream decoder(String base64) {
+      return new Base64Decoder(base64);
+   }
+
+
+   /**
+    * Decodes Base64 text chunk by chunk, so that the decoded bytes of large content are never held at once. White
+    * space, e.g. line breaks, is skipped.
+    */
+   private static final class Base64Decoder extends InputStream {
+
+      private static final int CHUNK    = 64 * 1024;
+      private final String     text;
+      private int              position;
+      private final byte[]     encoded  = new byte[CHUNK];
+      private final byte[]     decoded  = new byte[CHUNK / 4 * 3];
+      private int              offset, length;
+
+
+      Base64Decoder(String text) {
+         this.text = text;
+      }
+
+
+      private boolean fill() throws IOException {
+         int count = 0;
+         while (count < CHUNK && position < text.length()) {
+            char c = text.charAt(position++);
+            if (c > ' ') {
+               encoded[count++] = (byte) c;
+            }
+         }
+         if (count == 0) {
+            return false;
+         }
+         try {
+            length = java.util.Base64.getDecoder().decode(count == CHUNK ? encoded : Arrays.copyOf(encoded, count),
+                  decoded);
+         } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid Base64 content: " + e.getLocalizedMessage());
+         }
+         offset = 0;
+         return true;
+      }
+
+
+      @Override
+      public int read() throws IOException {
+         while (offset >= length) {
+            if (!fill()) {
+               return -1;
+            }
+         }
+         return decoded[offset++] & 0xff;
+      }
+
+
+      @Override
+      public int read(byte[] bytes, int off, int len) throws IOException {
+         if (len == 0) {
+            return 0;
+         }
+         while (offset >= length) {
+            if (!fill()) {
+               return -1;
+            }
+         }
+         int n = Math.min(len, length - offset);
+         System.arraycopy(decoded, offset, bytes, off, n);
+         offset += n;
+         return n;
+      }
+   }
+
+
+   /**
+    * @return {@link String} the text of the content as it was read, or null if the value was not read lazily or has
+    *         been changed since.
+    */
+   String getText() {
+      return text;
    }
 
 
    // unit
    protected void setUnit(String unit) {
-      this.unit = unit;
+      this.unit = share(unit);
+      changed();
    }
 
 
@@ -526,6 +754,7 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
    // uncertainty
    protected void setUncertainty(Object uncertainty) {
       this.uncertainty = uncertainty;
+      changed();
    }
 
 
@@ -536,7 +765,10 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
 
    // type
    protected void setType(String type) {
-      this.type = type;
+      getContent();
+      this.text = null;
+      this.type = share(type);
+      changed();
    }
 
 
@@ -547,60 +779,75 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
 
    // Filename
    protected void setFilename(String filename) {
-      this.filename = filename;
+      if (extras != null || (filename != null && !filename.isEmpty())) {
+         extras().filename = filename;
+      }
+      changed();
    }
 
 
    protected String getFilename() {
-      return this.filename;
+      return extras == null ? "" : extras.filename;
    }
 
 
    // definition
    protected void setDefinition(String comment) {
-      this.definition = comment;
+      if (extras != null || (comment != null && !comment.isEmpty())) {
+         extras().definition = comment;
+      }
+      changed();
    }
 
 
    protected String getDefinition() {
-      return this.definition;
+      return extras == null ? "" : extras.definition;
    }
 
 
    // reference
    protected void setReference(String reference) {
-      this.reference = reference;
+      if (extras != null || (reference != null && !reference.isEmpty())) {
+         extras().reference = reference;
+      }
+      changed();
    }
 
 
    protected String getReference() {
-      return this.reference;
+      return extras == null ? "" : extras.reference;
    }
 
 
    protected void setEncoder(String encoder) {
-      if (encoder == null || encoder.isEmpty())
-         this.encoder = "";
-      else
-         this.encoder = encoder;
+      if (encoder == null || encoder.isEmpty()) {
+         if (extras != null) {
+            extras.encoder = "";
+         }
+      } else {
+         extras().encoder = encoder;
+      }
    }
 
 
    protected String getEncoder() {
-      return this.encoder;
+      return extras == null ? "" : extras.encoder;
    }
 
 
    protected void setChecksum(String checksum) {
-      if (checksum == null || checksum.isEmpty())
-         this.checksum = "";
-      else
-         this.checksum = checksum;
+      if (checksum == null || checksum.isEmpty()) {
+         if (extras != null) {
+            extras.checksum = "";
+         }
+      } else {
+         extras().checksum = checksum;
+      }
    }
 
 
    protected String getChecksum() {
-      return this.checksum;
+      return extras == null ? "" : extras.checksum;
    }
 
 
@@ -626,41 +873,85 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
     * 
     */
    public void validate(Property terminologyProperty) {
+      validate(terminologyProperty, null);
+   }
+
+
+   /**
+    * Validates this value like {@link #validate(Property)}, adding the issues to the report.
+    * 
+    * @param terminologyProperty {@link Property}: The respective {@link Property} 
+    * that defines the kind of value.
+    * @param report {@link ValidationReport}: the report, null to log the issues.
+    */
+   public void validate(Property terminologyProperty, ValidationReport report) {
+      Section section = parent == null ? null : parent.getParent();
       if (this.type != null && !this.type.isEmpty()) {
          if (!this.type.equalsIgnoreCase(terminologyProperty.getType())) {
-            logger.warn("Value type (" + this.type
-                  + ") does not match the one given in the terminology("
-                  + terminologyProperty.getType()
-                  + ")! To guarantee interoperability please ckeck. However, kept provided type.");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.TYPE_DEVIATES, section,
+                  parent, this, terminologyProperty.getType(), type));
          }
       } else {
          try {
-            checkDatatype(this.content, terminologyProperty.getType());
+            checkDatatype(getContent(), terminologyProperty.getType());
             this.setType(terminologyProperty.getType());
-            logger.info("Added type information to value.");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.TYPE_ADDED, section,
+                  parent, this, terminologyProperty.getType(), null));
          } catch (Exception e) {
-            logger
-                  .warn("Value is not compatible with the type information the terminology suggests ("
-                        + terminologyProperty.getType()
-                        + "). Did not change anything, but please check");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.TYPE_INCOMPATIBLE,
+                  section, parent, this, terminologyProperty.getType(), content));
          }
       }
       if (this.unit != null && !this.unit.isEmpty()) {
          if (!this.unit.equalsIgnoreCase(terminologyProperty.getUnit(0))) {
-            logger.warn("Value unit (" + this.unit
-                  + ") does not match the one given in the terminology("
-                  + terminologyProperty.getUnit()
-                  + ")! To guarantee interoperability please ckeck. However, kept provided unit.");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.UNIT_DEVIATES, section,
+                  parent, this, terminologyProperty.getUnit(0), unit));
          }
       } else {
          if (terminologyProperty.getUnit() != null && !terminologyProperty.getUnit(0).isEmpty()) {
             this.setUnit(terminologyProperty.getUnit(0));
-            logger.info("Added unit " + terminologyProperty.getUnit() + " information to value.");
+            ValidationReport.report(report, logger, new ValidationIssue(ValidationIssue.Rule.UNIT_ADDED, section,
+                  parent, this, terminologyProperty.getUnit(0), null));
          }
       }
    }
 
 
+   /**
+    * Returns whether {@link #validate(Property, ValidationReport)} may take the type or the unit of this value from the
+    * terminology, i.e. may change the value.
+    */
+   boolean isCompletedBy(Property terminologyProperty) {
+      return type == null || type.isEmpty() || (unit == null || unit.isEmpty())
+            && terminologyProperty.getUnit() != null && !terminologyProperty.getUnit(0).isEmpty();
+   }
+
+
+   /**
+    * Creates an in-memory copy of this {@link Value}. Mutable content (dates) is copied, all other content is
+    * immutable and shared. The copy is not associated with a property.
+    * 
+    * @return {@link Value} the copy.
+    */
+   @Override
+   public Value clone() {
+      Value copy = null;
+      try {
+         copy = (Value) super.clone();
+      } catch (CloneNotSupportedException e) {
+         throw new InternalError(e.toString());
+      }
+      copy.parent = null;
+      if (extras != null) {
+         copy.extras = extras.clone();
+      }
+      if (content instanceof Date) {
+         copy.content = ((Date) content).clone();
+      }
+      return copy;
+   }
+
+
    /**
     * TODO
     * Compares the content of two values and returns whether they are equal. So far this
@@ -669,7 +960,7 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
     * @return {@link Boolean} <b>true</b> if the content of two values matches, <b>false</b> otherwise.
     */
    public boolean isEqual(Value other) {
-      if (this.content.toString() != other.content.toString()) {
+      if (this.getContent().toString() != other.getContent().toString()) {
          return false;
       }
       return true;
@@ -723,10 +1014,9 @@ public class Value extends Object implements Serializable, Cloneable, TreeNode {
       //the value has to be converted to String; if it is already just take it, if it is not
       //try different things 
       try {
-         byte[] bytes = enc.encode(getBytesFromFile(file));
-         CRC32 crc = new CRC32();
-         crc.update(bytes);
-         this.setChecksum("CRC32$" + crc.getValue());
+         byte[] raw = getBytesFromFile(file);
+         this.setChecksum(Checksum.compute(Checksum.CRC32C, raw));
+         byte[] bytes = enc.encode(raw);
          this.setFilename(file.getName());
          this.setEncoder("Base64");
          encoded = new String(bytes, "UTF-8");
@@ -0,0 +1,215 @@
+package odml.core;
+
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link ValueCursor} iterates over the values of a {@link Property} without copying them into vectors. It starts
+ * before the first value, each call of {@link #next()} moves it to the next one:
+ *
+ * <pre>
+ * ValueCursor cursor = property.cursor();
+ * while (cursor.next()) {
+ *    sum += cursor.getDouble();
+ * }
+ * </pre>
+ *
+ * The typed accessors read the values of packed numeric properties directly from their arrays. The property must not
+ * be changed while a cursor is used.
+ *
+ * @since 10.2026
+ */
+public final class ValueCursor {
+
+   static Logger                logger = LoggerFactory.getLogger(ValueCursor.class);
+   private final PackedValues   packed;
+   private final Vector<Value>  values;
+   private final int            count;
+   private int                  index  = -1;
+   private Value                value;
+
+
+   ValueCursor(PackedValues packed) {
+      this.packed = packed;
+      this.values = null;
+      this.count = packed.size();
+   }
+
+
+   ValueCursor(Vector<Value> values) {
+      this.packed = null;
+      this.values = values;
+      this.count = values.size();
+   }
+
+
+   /**
+    * Moves the cursor to the next value.
+    *
+    * @return boolean true if there is a next value, false if the cursor is behind the last value.
+    */
+   public boolean next() {
+      if (index >= count) {
+         return false;
+      }
+      index++;
+      if (index >= count) {
+         value = null;
+         return false;
+      }
+      if (packed == null) {
+         value = values.get(index);
+      }
+      return true;
+   }
+
+
+   /**
+    * Moves the cursor back before the first value.
+    */
+   public void reset() {
+      index = -1;
+      value = null;
+   }
+
+
+   /**
+    * @return int the index of the current value.
+    */
+   public int getIndex() {
+      return index;
+   }
+
+
+   private void check() {
+      if (index < 0 || index >= count) {
+         throw new IllegalStateException("ValueCursor is not positioned on a value!");
+      }
+   }
+
+
+   /**
+    * @return {@link Object} the content of the current value.
+    */
+   public Object getContent() {
+      check();
+      return packed != null ? packed.get(index) : value.getContent();
+   }
+
+
+   /**
+    * Returns the current value as number, like {@link Property#getNumber(int)}.
+    *
+    * @return double the number, or Double.NaN if the content is not a number.
+    */
+   public double getDouble() {
+      check();
+      if (packed != null && packed.isNumeric()) {
+         return packed.getNumber(index);
+      }
+      try {
+         return Property.toNumber(getContent());
+      } catch (ParseException e) {
+         logger.error("Value " + index + " can not be converted to float!");
+         return Double.NaN;
+      }
+   }
+
+
+   /**
+    * Returns the current value as long. Fractions are cut off, dates are returned as epoch milliseconds and booleans
+    * as 1 or 0.
+    *
+    * @return long the value, or 0 if the content cannot be converted.
+    */
+   public long getLong() {
+      check();
+      if (packed != null) {
+         return packed.getLong(index);
+      }
+      Object content = value.getContent();
+      if (content instanceof Integer || content instanceof Long) {
+         return ((Number) content).longValue();
+      } else if (content instanceof Date) {
+         return ((Date) content).getTime();
+      } else if (content instanceof Boolean) {
+         return (Boolean) content ? 1 : 0;
+      }
+      try {
+         return (long) Property.toNumber(content);
+      } catch (Exception e) {
+         logger.error("Value " + index + " can not be converted to long!");
+         return 0;
+      }
+   }
+
+
+   /**
+    * @return {@link String} the content of the current value as text, null if it has no content.
+    */
+   public String getString() {
+      Object content = getContent();
+      return content == null ? null : content.toString();
+   }
+
+
+   /**
+    * @return {@link String} the unit of the current value.
+    */
+   public String getUnit() {
+      check();
+      return packed != null ? packed.getUnit() : value.getUnit();
+   }
+
+
+   /**
+    * @return {@link String} the type of the current value.
+    */
+   public String getType() {
+      check();
+      return packed != null ? packed.getType() : value.getType();
+   }
+
+
+   /**
+    * @return {@link Object} the uncertainty of the current value, an empty string if it has none.
+    */
+   public Object getUncertainty() {
+      check();
+      return packed != null ? "" : value.getUncertainty();
+   }
+
+
+   /**
+    * @return {@link String} the reference of the current value, an empty string if it has none.
+    */
+   public String getReference() {
+      check();
+      return packed != null ? "" : value.getReference();
+   }
+
+
+   /**
+    * @return {@link String} the definition of the current value, an empty string if it has none.
+    */
+   public String getDefinition() {
+      check();
+      return packed != null ? "" : value.getDefinition();
+   }
+}
@@ -58,6 +58,8 @@ public class Writer implements Serializable {
 
     private final static SimpleDateFormat timeFormat = new SimpleDateFormat("hh:mm:ss");
 
+    private boolean blobReferences = false;
+
 
     /**
      * Creates a writer instance. Lets the Wirter write only those properties that have values.
@@ -137,6 +139,29 @@ public class Writer implements Serializable {
     }
 
 
+    /**
+     * Sets whether binary values whose content is kept in a {@link BlobStore} are written as references, i.e. as the
+     * key of their content with encoder 'blob', instead of their Base64 encoded content. Equal contents are then
+     * stored once, however often they occur. The document can only be read with a {@link Reader} using the same
+     * store, see {@link Reader#setBlobStore(BlobStore)}. Only contents of a persistent store are written as
+     * references, see {@link BlobStore#isPersistent()}; others are still written in full.
+     * 
+     * @param blobReferences boolean true to write references, default is false.
+     */
+    public void setBlobReferences(boolean blobReferences) {
+        this.blobReferences = blobReferences;
+    }
+
+
+    /**
+     * @return boolean true if stored binary contents are written as references, see
+     *         {@link #setBlobReferences(boolean)}.
+     */
+    public boolean isBlobReferences() {
+        return blobReferences;
+    }
+
+
     /**
      * Writes the odML serialization to the given output stream.
      * 
@@ -306,15 +331,44 @@ public class Writer implements Serializable {
 
 
     /**
-     * Method to append a section-element to the dom-tree.
+     * Method to append a section-element and the elements of all its subsections to the dom-tree.
      * 
      * @param parent {@link Element}: the parent where the section shall be appended
      * @param section {@link Section}: the section to append to the parent-element
      * @param asTemplate {@link boolean}: flag to indicate whether template or not; if template then also writing
      *        value-information (e.g. unit or type) without having actual value-content
      */
-    private void appendSection(Element parent, Section section, boolean asTemplate) {
+    private void appendSection(Element parent, Section section, final boolean asTemplate) {
         logger.debug("in appendSection\twith Section section");
+        final ArrayDeque<Element> elements = new ArrayDeque<Element>();
+        elements.push(parent);
+        section.accept(new SectionVisitor() {
+
+            @Override
+            public Result preVisit(Section s) {
+                elements.push(createSectionElement(s, asTemplate));
+                return Result.CONTINUE;
+            }
+
+
+            @Override
+            public Result postVisit(Section s) {
+                Element sectionElement = elements.pop();
+                elements.peek().addContent(sectionElement);
+                return Result.CONTINUE;
+            }
+        });
+    }
+
+
+    /**
+     * Creates the section-element of a single section including its properties but without its subsections.
+     * 
+     * @param section {@link Section}: the section
+     * @param asTemplate {@link boolean}: flag to indicate whether template or not
+     * @return {@link Element} the section-element
+     */
+    private Element createSectionElement(Section section, boolean asTemplate) {
         Element sectionElement = new Element("section");
 
         Element type = new Element("type");
@@ -367,12 +421,7 @@ public class Writer implements Serializable {
         for (int i = 0; i < section.propertyCount(); i++) {
             appendProperty(sectionElement, section.getProperty(i), asTemplate);
         }
-        // cycle through the subsections
-        for (int i = 0; i < section.sectionCount(); i++) {
-            appendSection(sectionElement, section.getSection(i), asTemplate);
-        }
-        // append to parent
-        parent.addContent(sectionElement);
+        return sectionElement;
     }
 
 
@@ -429,7 +478,7 @@ public class Writer implements Serializable {
 
         // appending the values.
         for (int i = 0; i < prop.valueCount(); i++) {
-            appendValue(propertyElement, prop.getWholeValue(i), asTerminology);
+            appendValue(propertyElement, prop.valueAt(i), asTerminology);
         }
 
         // append to the parent
@@ -446,25 +495,33 @@ public class Writer implements Serializable {
      *        (non-functional so far). BUT: if false: not writing values with empty 'name' (value itself)
      */
     private void appendValue(Element parent, Value val, boolean asTemplate) {
-        if (!asTemplate) {
-            if (val.getContent() == null || val.getContent().toString().isEmpty()) { return; }
+        // lazily read values that were not changed keep their text and need not be converted
+        String key = blobReferences ? val.getBlobKey() : null;
+        String text = key != null ? key : val.getText();
+        // stored binary content is read and encoded on each access, so it is fetched only once
+        Object content = text == null ? val.getContent() : null;
+        if (!asTemplate && text == null) {
+            if (content == null || content.toString().isEmpty()) { return; }
         }
 
         Element valueElement = new Element("value");
-        if (val.getContent() != null && (!val.getContent().toString().isEmpty())) {
-            if (val.getContent() instanceof Date) {
-                Date d = (Date) val.getContent();
-                if (val.getType().equalsIgnoreCase("date")) {
+        if (text != null) {
+            valueElement.setText(text);
+        } else if (content != null && (!content.toString().isEmpty())) {
+            if (content instanceof Date) {
+                Date d = (Date) content;
+                OdmlType odmlType = OdmlType.resolve(val.getType());
+                if (odmlType == OdmlType.DATE) {
                     valueElement.setText(dateFormat.format(d));
-                } else if (val.getType().equalsIgnoreCase("datetime")) {
+                } else if (odmlType == OdmlType.DATETIME) {
                     valueElement.setText(datetimeFormat.format(d));
-                } else if (val.getType().equalsIgnoreCase("time")) {
+                } else if (odmlType == OdmlType.TIME) {
                     valueElement.setText(timeFormat.format(d));
                 } else {
-                    valueElement.setText(val.getContent().toString());
+                    valueElement.setText(content.toString());
                 }
             } else {
-                valueElement.setText(val.getContent().toString());
+                valueElement.setText(content.toString());
             }
         }
 
@@ -505,7 +562,7 @@ public class Writer implements Serializable {
             valueElement.addContent(idElement);
         }
         Element encoderElement = new Element("encoder");
-        String encoder = val.getEncoder();
+        String encoder = key != null ? Value.BLOB_ENCODER : val.getEncoder();
         if (encoder != null && (!encoder.isEmpty())) {
             encoderElement.setText(encoder);
             valueElement.addContent(encoderElement);
@@ -13,7 +13,6 @@ package odml.util;
  * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
  * <http://www.gnu.org/licenses/>.
  */
-import java.io.IOException;
 import java.net.URL;
 import java.util.HashMap;
 import odml.core.*;
@@ -221,14 +220,7 @@ public class Mapper {
     */
    public void mapProperty(Property p) {
       // create a copy of the property.
-      Property myCopy = null;
-      try {
-         myCopy = p.copy();
-      } catch (IOException e) {
-         e.printStackTrace();
-      } catch (ClassNotFoundException e) {
-         e.printStackTrace();
-      }
+      Property myCopy = p.clone();
 
       Section parentDest = mapped.getSection(forwardMap.get(p.getParent().getPath()));// find the destination
       // section
@@ -0,0 +1,392 @@
+package odml.util;
+/************************************************************************
+ * odML - open metadata Markup Language - Copyright (C) 2009, 2010 Jan Grewe, Jan Benda
+ *
+ * This program is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General
+ * Public License (LGPL) as published by the Free Software Foundation; either version 3 of the License, or (at your
+ * option) any later version.
+ *
+ * odML is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with this software. If not, see
+ * <http://www.gnu.org/licenses/>.
+ */
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Vector;
+import java.util.regex.Pattern;
+
+import odml.core.Property;
+import odml.core.Section;
+
+import org.slf4j.*;
+
+/**
+ * An {@link OdmlQuery} is a compiled path expression that selects sections and properties of an odML tree. In
+ * contrast to the paths accepted by {@link Section#getSection(String)} a query may contain wildcards, recursive
+ * descent and type predicates. The query is parsed once by {@link #compile(String)} and can then be evaluated on any
+ * number of trees, also concurrently from several threads. Each evaluation visits every section at most once.
+ * <p>
+ * The syntax extends the {@link SectionPath} syntax:
+ * <ul>
+ * <li><code>a/b/c</code> - names of the sections along the path, relative to the section the query is evaluated on.
+ * A leading '/' makes the path absolute, i.e. it is evaluated on the root section.</li>
+ * <li><code>*</code> and <code>?</code> - wildcards for any number of characters or a single character within a
+ * name.</li>
+ * <li><code>**</code> - matches any number (including zero) of sections.</li>
+ * <li><code>name[type=cell]</code> - additionally requires the section type to match. Like
+ * {@link Section#getSectionsByType(String)} a section of type 'cell/neuron' matches type 'cell'. The type may contain
+ * wildcards. <code>[type=cell]</code> is short for <code>*[type=cell]</code>.</li>
+ * <li><code>#prop</code> - at the end of the query, selects the properties of the matched sections whose names match
+ * the pattern.</li>
+ * </ul>
+ * All matching is case-insensitive, e.g. <code>/Subject&#42;/&#42;&#42;/Cell[type=cell]#cellType</code> selects the
+ * 'cellType' properties of all 'cell' sections named 'Cell' anywhere below a top-level section whose name starts with
+ * 'Subject'.
+ *
+ * @since 10.2026
+ */
+public final class OdmlQuery {
+
+   static Logger        logger = LoggerFactory.getLogger(OdmlQuery.class);
+   private final String query;
+   private final Step[] steps;
+   private final Step   property;
+   private final boolean absolute;
+
+
+   private OdmlQuery(String query, Step[] steps, Step property, boolean absolute) {
+      this.query = query;
+      this.steps = steps;
+      this.property = property;
+      this.absolute = absolute;
+   }
+
+
+   /**
+    * Compiles a query.
+    *
+    * @param query
+    *            {@link String} the query.
+    * @return {@link OdmlQuery} the compiled query or null if the query is invalid.
+    */
+   public static OdmlQuery compile(String query) {
+      if (query == null || query.isEmpty()) {
+         logger.error("OdmlQuery.compile: query must not be null or empty!");
+         return null;
+      }
+      String path = query;
+      Step property = null;
+      if (path.contains("#")) {
+         if (path.indexOf("#") != path.lastIndexOf("#")) {
+            logger.error("OdmlQuery.compile: query must not contain more than one property part: " + query);
+            return null;
+         }
+         String propertyPart = path.substring(path.indexOf("#") + 1);
+         if (propertyPart.isEmpty() || propertyPart.contains("/")) {
+            logger.error("OdmlQuery.compile: invalid property part in query: " + query);
+            return null;
+         }
+         property = new Step(propertyPart, null);
+         path = path.substring(0, path.indexOf("#"));
+      }
+      boolean absolute = path.startsWith("/");
+      if (absolute) {
+         path = path.substring(1);
+      }
+      if (path.endsWith("/")) {
+         path = path.substring(0, path.length() - 1);
+      }
+      Vector<Step> steps = new Vector<Step>();
+      if (!path.isEmpty()) {
+         String[] parts = path.split("/", -1);
+         for (String part : parts) {
+            Step step = parseStep(part);
+            if (step == null) {
+               logger.error("OdmlQuery.compile: invalid query: " + query);
+               return null;
+            }
+            // consecutive recursive descents are equivalent to one
+            if (step.isDescent() && !steps.isEmpty() && steps.lastElement().isDescent()) {
+               continue;
+            }
+            steps.add(step);
+         }
+      }
+      return new OdmlQuery(query, steps.toArray(new Step[steps.size()]), property, absolute);
+   }
+
+
+   private static Step parseStep(String part) {
+      if (part.isEmpty()) {
+         return null;
+      }
+      if (part.equals("**")) {
+         return Step.DESCENT;
+      }
+      String type = null;
+      if (part.endsWith("]")) {
+         int open = part.indexOf("[");
+         if (open < 0) {
+            return null;
+         }
+         String predicate = part.substring(open + 1, part.length() - 1).trim();
+         if (!predicate.toLowerCase().startsWith("type=")) {
+            return null;
+         }
+         type = predicate.substring(predicate.indexOf("=") + 1).trim();
+         if (type.isEmpty()) {
+            return null;
+         }
+         part = part.substring(0, open);
+         if (part.isEmpty()) {
+            part = "*";
+         }
+      }
+      if (part.contains("[") || part.contains("]") || part.contains("**")) {
+         return null;
+      }
+      return new Step(part, type);
+   }
+
+
+   /**
+    * Returns whether the query selects properties, i.e. ends with a '#' part.
+    *
+    * @return boolean
+    */
+   public boolean addressesProperty() {
+      return property != null;
+   }
+
+
+   /**
+    * Returns all sections matching the query, in document order. If the query addresses properties, the sections that
+    * contain at least one matching property are returned.
+    *
+    * @param section
+    *            {@link Section} the section the query is evaluated on. Absolute queries are evaluated on its root.
+    * @return {@link Vector} of {@link Section}s, may be empty.
+    */
+   public Vector<Section> findSections(Section section) {
+      Vector<Section> sections = new Vector<Section>();
+      evaluate(section, sections, null, true);
+      return sections;
+   }
+
+
+   /**
+    * Returns the first section matching the query, in document order.
+    *
+    * @param section
+    *            {@link Section} the section the query is evaluated on. Absolute queries are evaluated on its root.
+    * @return {@link Section} the section or null if none matches.
+    */
+   public Section findSection(Section section) {
+      Vector<Section> sections = new Vector<Section>();
+      evaluate(section, sections, null, false);
+      return sections.isEmpty() ? null : sections.get(0);
+   }
+
+
+   /**
+    * Returns all properties matching the query, in document order. Queries without a '#' part select all properties
+    * of the matching sections.
+    *
+    * @param section
+    *            {@link Section} the section the query is evaluated on. Absolute queries are evaluated on its root.
+    * @return {@link Vector} of {@link Property}s, may be empty.
+    */
+   public Vector<Property> findProperties(Section section) {
+      Vector<Property> properties = new Vector<Property>();
+      evaluate(section, null, properties, true);
+      return properties;
+   }
+
+
+   private void evaluate(Section section, Vector<Section> sections, Vector<Property> properties, boolean all) {
+      if (section == null) {
+         return;
+      }
+      if (absolute) {
+         section = section.getRootSection();
+      }
+      BitSet states = new BitSet(steps.length + 1);
+      states.set(0);
+      visit(section, closure(states), sections, properties, all);
+   }
+
+
+   /**
+    * Collects the matches of the given section and descends into the subsections that can still lead to a match, in
+    * document order. The states are the indices of the steps that may match the next section. Like
+    * {@link odml.core.SectionVisitor} the tree is walked with an explicit stack, so that deep trees do not overflow
+    * the call stack.
+    */
+   private void visit(Section section, BitSet states, Vector<Section> sections, Vector<Property> properties,
+                      boolean all) {
+      ArrayDeque<Section> pending = new ArrayDeque<Section>();
+      ArrayDeque<BitSet> pendingStates = new ArrayDeque<BitSet>();
+      pending.push(section);
+      pendingStates.push(states);
+      while (!pending.isEmpty()) {
+         section = pending.pop();
+         states = pendingStates.pop();
+         if (states.get(steps.length) && collect(section, sections, properties) && !all) {
+            return;
+         }
+         // pushed in reverse, so that the first subsection is visited first
+         for (int i = section.sectionCount() - 1; i >= 0; i--) {
+            Section child = section.getSection(i);
+            BitSet next = new BitSet(steps.length + 1);
+            for (int s = states.nextSetBit(0); s >= 0 && s < steps.length; s = states.nextSetBit(s + 1)) {
+               if (steps[s].isDescent()) {
+                  next.set(s);
+               } else if (steps[s].matches(child)) {
+                  next.set(s + 1);
+               }
+            }
+            if (!next.isEmpty()) {
+               pending.push(child);
+               pendingStates.push(closure(next));
+            }
+         }
+      }
+   }
+
+
+   /**
+    * Adds the state after each recursive descent, since a descent may match zero sections.
+    */
+   private BitSet closure(BitSet states) {
+      for (int s = states.nextSetBit(0); s >= 0 && s < steps.length; s = states.nextSetBit(s + 1)) {
+         if (steps[s].isDescent()) {
+            states.set(s + 1);
+         }
+      }
+      return states;
+   }
+
+
+   /**
+    * @return boolean true if the section or at least one of its properties was collected.
+    */
+   private boolean collect(Section section, Vector<Section> sections, Vector<Property> properties) {
+      if (property == null) {
+         if (sections != null) {
+            sections.add(section);
+         }
+         if (properties != null) {
+            for (int i = 0; i < section.propertyCount(); i++) {
+               properties.add(section.getProperty(i));
+            }
+         }
+         return true;
+      }
+      boolean found = false;
+      for (int i = 0; i < section.propertyCount(); i++) {
+         Property p = section.getProperty(i);
+         if (property.matchesName(p.getName())) {
+            found = true;
+            if (properties == null) {
+               break;
+            }
+            properties.add(p);
+         }
+      }
+      if (found && sections != null) {
+         sections.add(section);
+      }
+      return found;
+   }
+
+
+   @Override
+   public String toString() {
+      return query;
+   }
+
+
+   /**
+    * One step of a query, i.e. a name pattern with an optional type pattern or a recursive descent.
+    */
+   private static final class Step {
+
+      static final Step     DESCENT = new Step(null, null);
+      private final String  name, type;
+      private final Pattern namePattern, typePattern;
+
+
+      Step(String name, String type) {
+         this.name = name;
+         this.type = type;
+         this.namePattern = toPattern(name);
+         this.typePattern = toPattern(type);
+      }
+
+
+      boolean isDescent() {
+         return this == DESCENT;
+      }
+
+
+      boolean matches(Section section) {
+         if (!matchesName(section.getName())) {
+            return false;
+         }
+         if (type == null) {
+            return true;
+         }
+         String sectionType = section.getType();
+         if (sectionType == null) {
+            return false;
+         }
+         return matches(type, typePattern, sectionType)
+               || (sectionType.contains("/") && matches(type, typePattern,
+                     sectionType.substring(0, sectionType.indexOf("/"))));
+      }
+
+
+      boolean matchesName(String value) {
+         return value != null && matches(name, namePattern, value);
+      }
+
+
+      private static boolean matches(String literal, Pattern pattern, String value) {
+         if (pattern == null) {
+            return literal.equalsIgnoreCase(value);
+         }
+         return pattern.matcher(value).matches();
+      }
+
+
+      /**
+       * @return {@link Pattern} for names that contain wildcards, null for literal names.
+       */
+      private static Pattern toPattern(String glob) {
+         if (glob == null || (!glob.contains("*") && !glob.contains("?"))) {
+            return null;
+         }
+         if (glob.equals("*")) {
+            return Pattern.compile(".*", Pattern.DOTALL);
+         }
+         StringBuilder regex = new StringBuilder();
+         int start = 0;
+         for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+               if (i > start) {
+                  regex.append(Pattern.quote(glob.substring(start, i)));
+               }
+               regex.append(c == '*' ? ".*" : ".");
+               start = i + 1;
+            }
+         }
+         if (start < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(start)));
+         }
+         return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+      }
+   }
+}